@@ -0,0 +1,19 @@
+package org.example.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注在@Component类或@Bean方法上，只有classpath中存在全部指定的类时才注册该Bean。
+ *
+ * 使用类名而不是Class，这样指定的类不存在时，读取该注解也不会失败，判断时也不会加载这些类。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalOnClass {
+
+    /**
+     * 全限定类名，例如jakarta.servlet.Servlet；嵌套类可以写二进制名（java.util.Map$Entry）或规范名（java.util.Map.Entry）
+     */
+    String[] value();
+}
@@ -0,0 +1,19 @@
+package org.example.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注在@Component类或@Bean方法上，只有容器中不存在指定类型或名称的Bean时才注册该Bean，常用于提供可被覆盖的默认实现。
+ *
+ * value和name都为空时，按该Bean自身的声明类型判断。
+ * 该条件在其他所有条件之后判断，多个@ConditionalOnMissingBean的Bean按@Order、名称的顺序依次判断。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalOnMissingBean {
+
+    Class<?>[] value() default {};
+
+    String[] name() default {};
+}
@@ -0,0 +1,25 @@
+package org.example.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注在@Component类或@Bean方法上，只有配置项满足条件时才注册该Bean：
+ * havingValue为空时，配置项存在且不为false即满足；否则配置项必须等于havingValue。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalOnProperty {
+
+    /**
+     * 配置项的key，例如app.web.enabled
+     */
+    String name();
+
+    String havingValue() default "";
+
+    /**
+     * 配置项不存在时是否满足条件
+     */
+    boolean matchIfMissing() default false;
+}
@@ -0,0 +1,19 @@
+package org.example.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注在@Component类或@Bean方法上，表示该Bean在第一次被获取时才创建。
+ *
+ * 被注入到非懒加载的Bean中时，注入的是一个代理，在第一次调用方法时才创建真正的Bean。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+
+    /**
+     * Whether lazy initialization should occur.
+     */
+    boolean value() default true;
+}
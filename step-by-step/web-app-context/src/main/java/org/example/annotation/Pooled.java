@@ -0,0 +1,20 @@
+package org.example.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注在@Component类或@Bean方法上，表示该Bean不是线程安全的，由容器维护一个最多max个实例的对象池。
+ *
+ * 注入点和getBean()得到的是一个代理，每次调用方法时从池中借出一个实例，调用结束后归还，
+ * 因此同一时刻一个实例只会被一个线程使用。池中实例按需创建，创建方式与prototype的Bean相同。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Pooled {
+
+    /**
+     * 池中最多的实例数，所有实例都被借出时，调用方等待
+     */
+    int max() default 8;
+}
@@ -0,0 +1,17 @@
+package org.example.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注在@Component类或@Bean方法上，只有任一指定的profile处于激活状态时才注册该Bean。
+ *
+ * 激活的profile由配置项summer.profiles.active指定（逗号分隔），未指定时为default。
+ * 以!开头表示该profile未激活时满足，例如@Profile("!batch")。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Profile {
+
+    String[] value();
+}
@@ -0,0 +1,21 @@
+package org.example.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注在@Component类或@Bean方法上，指定Bean的作用域：
+ * singleton（默认）整个容器只有一个实例；prototype每次获取或注入都创建一个新实例。
+ *
+ * prototype的Bean不会在容器启动时创建，也不会被容器销毁。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scope {
+
+    String SINGLETON = "singleton";
+
+    String PROTOTYPE = "prototype";
+
+    String value() default SINGLETON;
+}
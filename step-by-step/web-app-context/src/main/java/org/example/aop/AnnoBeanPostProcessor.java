@@ -1,6 +1,7 @@
 package org.example.aop;
 
-import org.example.context.ApplicationContextUtils;
+import org.example.context.ApplicationContext;
+import org.example.context.ApplicationContextAware;
 import org.example.context.BeanDefinition;
 import org.example.context.BeanPostProcessor;
 import org.example.context.ConfigurableApplicationContext;
@@ -10,12 +11,15 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class AnnoBeanPostProcessor <A extends Annotation> implements BeanPostProcessor {
+public class AnnoBeanPostProcessor <A extends Annotation> implements BeanPostProcessor, ApplicationContextAware {
 
-    Map<String, Object> originBean = new HashMap<>();
+    Map<String, Object> originBean = new ConcurrentHashMap<>();
+
+    // 由容器通过ApplicationContextAware回调注入
+    volatile ConfigurableApplicationContext applicationContext;
 
     Class<A> annoClass;
 
@@ -23,6 +27,11 @@ public class AnnoBeanPostProcessor <A extends Annotation> implements BeanPostPro
         this.annoClass = getAnnoClass();
     }
 
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = (ConfigurableApplicationContext) applicationContext;
+    }
+
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) {
         // 从annoClass注解的value中获取拦截器对象
@@ -33,8 +42,7 @@ public class AnnoBeanPostProcessor <A extends Annotation> implements BeanPostPro
         } catch (ReflectiveOperationException e) {
             throw new RuntimeException(e);
         }
-        ConfigurableApplicationContext ctx
-                = (ConfigurableApplicationContext) ApplicationContextUtils.getApplicationContext();
+        ConfigurableApplicationContext ctx = this.applicationContext;
         BeanDefinition handlerDef = ctx.findBeanDefinition(handlerName);
         if (handlerDef == null) {
             return bean;
@@ -1,24 +1,33 @@
 package org.example.aop;
 
 import org.example.annotation.Around;
-import org.example.context.ApplicationContextUtils;
+import org.example.context.ApplicationContext;
+import org.example.context.ApplicationContextAware;
 import org.example.context.BeanDefinition;
 import org.example.context.BeanPostProcessor;
 import org.example.context.ConfigurableApplicationContext;
 import org.example.io.ProxyResolver;
 
 import java.lang.reflect.InvocationHandler;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 这个AroundBeanPostProcessor类的作用是在Bean初始化前检查是否标记了Around注解，
  * 如果标记了，就根据Around注解中指定的拦截器对象，创建一个代理对象，并在代理对象中应用AOP拦截逻辑。
  * 这样，我们就可以在特定的Bean上使用Around注解来实现AOP拦截。
  */
-public class AroundBeanPostProcessor implements BeanPostProcessor {
+public class AroundBeanPostProcessor implements BeanPostProcessor, ApplicationContextAware {
 
-    Map<String, Object> originBean = new HashMap<>();
+    Map<String, Object> originBean = new ConcurrentHashMap<>();
+
+    // 所在的容器，由容器在创建后回调设置，可能在其他线程中读取，因此使用volatile
+    volatile ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = (ConfigurableApplicationContext) applicationContext;
+    }
 
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) {
@@ -31,8 +40,7 @@ public class AroundBeanPostProcessor implements BeanPostProcessor {
         if (handlerName == null) {
             return bean;
         }
-        ConfigurableApplicationContext ctx
-                = (ConfigurableApplicationContext) ApplicationContextUtils.getApplicationContext();
+        ConfigurableApplicationContext ctx = this.applicationContext;
         BeanDefinition handlerDef = ctx.findBeanDefinition(handlerName);
         Object handler = handlerDef.getInstance();
         if (handler == null) {
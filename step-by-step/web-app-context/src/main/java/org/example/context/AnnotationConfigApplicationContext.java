@@ -1,73 +1,426 @@
 package org.example.context;
 
 import jakarta.annotation.Nullable;
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import org.example.annotation.*;
 import org.example.exception.BeanCreationException;
 import org.example.exception.BeanDefinitionException;
 import org.example.exception.BeansException;
+import org.example.exception.NoSuchBeanDefinitionException;
+import org.example.index.ComponentIndex;
+import org.example.io.JarReaderCache;
 import org.example.io.PropertyResolver;
+import org.example.io.ProxyResolver;
+import org.example.io.Resource;
 import org.example.io.ResourceResolver;
+import org.example.utils.ClassFileReader;
+import org.example.utils.AnnotationMetadata;
 import org.example.utils.ClassUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class AnnotationConfigApplicationContext implements ConfigurableApplicationContext {
 
+    /**
+     * 是否并行创建普通Bean，默认为false
+     */
+    public static final String PARALLEL_REFRESH_PROPERTY = "summer.context.parallel-refresh";
+
+    /**
+     * 并行创建Bean时ForkJoinPool的并行度，默认为CPU核数
+     */
+    public static final String PARALLELISM_PROPERTY = "summer.context.parallelism";
+
+    /**
+     * 是否并行扫描classpath（多个目录/jar包以及其中的class文件），默认为false，并行度同summer.context.parallelism
+     */
+    public static final String PARALLEL_SCAN_PROPERTY = "summer.context.parallel-scan";
+
+    /**
+     * BeanDefinition缓存文件，classpath指纹不变时跳过扫描直接从该文件重建BeanDefinition，默认不使用缓存。
+     * 扫描的包位于jar包中时，指纹只需要读取jar文件的大小和修改时间；位于目录中（例如IDE或测试中的classes目录）时，
+     * 需要读取包目录下每个文件的大小和修改时间，文件很多时计算指纹本身也需要遍历整个目录，节省的主要是加载和解析类的时间。
+     */
+    public static final String DEFINITION_CACHE_PROPERTY = "summer.context.definition-cache";
+
+    /**
+     * 刷新完成后把启动时间线以JSON格式写入该文件，默认不写入
+     */
+    public static final String STARTUP_TIMELINE_FILE_PROPERTY = "summer.context.startup-timeline-file";
+
+    /**
+     * 是否并发调用init方法，默认为false
+     */
+    public static final String PARALLEL_INIT_PROPERTY = "summer.context.parallel-init";
+
+    /**
+     * 并发调用init方法使用的线程：platform（默认，ForkJoinPool，并行度同summer.context.parallelism）或virtual（虚拟线程，需要JDK 21）
+     */
+    public static final String INIT_EXECUTOR_PROPERTY = "summer.context.init-executor";
+
+    /**
+     * 关闭容器时每个Bean销毁方法的超时时间（毫秒），默认为10000
+     */
+    public static final String SHUTDOWN_TIMEOUT_PROPERTY = "summer.context.shutdown-timeout";
+
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT = 10_000;
+
+    /**
+     * 是否使用META-INF/summer.components组件索引代替对其所在classpath根的扫描，没有索引的classpath根仍然扫描，默认为true
+     */
+    public static final String COMPONENT_INDEX_PROPERTY = "summer.context.component-index";
+
+    /**
+     * 刷新结束时是否冻结BeanDefinition元数据，默认为true
+     */
+    public static final String FREEZE_METADATA_PROPERTY = "summer.context.freeze-metadata";
+
+    /**
+     * 激活的profile，逗号分隔，默认为default，用于@Profile
+     */
+    public static final String ACTIVE_PROFILES_PROPERTY = "summer.profiles.active";
+
     protected final PropertyResolver propertyResolver;
 
-    protected final Map<String, BeanDefinition> beans;
+    // 编译期生成的组件索引，不存在或被禁用时为null
+    protected final ComponentIndex componentIndex;
 
-    // 用来检测循环依赖
+    // 刷新结束冻结时替换为紧凑的不可变Map
+    protected volatile Map<String, BeanDefinition> beans;
+
+    // 按类型查找BeanDefinition的索引，添加BeanDefinition时失效，下次按类型查找时重建
+    protected volatile BeanTypeIndex typeIndex;
+
+    // 刷新完成后冻结的只读注册表，getBean系列方法通过它无锁查找
+    protected volatile SingletonRegistry registry;
+
+    // 用来检测循环依赖，并行创建时会被多个线程同时访问
     protected Set<String> creatingBeanNames;
 
     protected List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
 
+    // 启动时间线，记录各阶段及每个Bean的耗时
+    protected final StartupTimeline startupTimeline = new StartupTimeline();
+
+    // 最近一次关闭容器的结果
+    protected volatile ShutdownReport shutdownReport;
+
+    // 冻结元数据的结果，未冻结时为null
+    protected volatile FreezeReport freezeReport;
+
+    // 父容器，本容器中找不到的依赖从父容器查找
+    protected final ConfigurableApplicationContext parent;
+
     public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver) {
-        ApplicationContextUtils.setApplicationContext(this);
+        this(configClass, propertyResolver, null);
+    }
 
+    /**
+     * 创建一个子容器：只扫描和创建configClass指定的Bean，本容器中找不到的Bean从parent查找。
+     * 多个子容器可以共享同一个父容器中的基础设施Bean（连接池、缓存等），关闭子容器不会关闭父容器。
+     */
+    public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver,
+                                              @Nullable ConfigurableApplicationContext parent) {
+        this.parent = parent;
         this.propertyResolver = propertyResolver;
+        this.componentIndex = loadComponentIndex();
+
+        // 扫描获取所有bean的class类型，classpath未变化时直接使用缓存的BeanDefinition
+        StartupTimeline.Span span = startupTimeline.beginPhase();
+        BeanDefinitionCache definitionCache = createBeanDefinitionCache(configClass);
+        List<BeanDefinition> cachedDefs = definitionCache == null ? null : definitionCache.load(this::loadClass);
+        ClassFileReader classFileReader = new ClassFileReader(getContextClassLoader());
+        Set<String> beanClassNames = cachedDefs == null ? scanForClassNames(configClass, classFileReader) : null;
+        startupTimeline.phase(StartupTimeline.Phase.SCAN, span);
 
-        // 扫描获取所有bean的class类型
-        Set<String> beanClassNames = scanForClassNames(configClass);
         // 创建bean的定义
-        beans = createBeanDefinitions(beanClassNames);
+        span = startupTimeline.beginPhase();
+        if (cachedDefs != null) {
+            beans = new HashMap<>();
+            cachedDefs.forEach(def -> addBeanDefinitions(beans, def));
+        } else {
+            beans = createBeanDefinitions(beanClassNames);
+            if (definitionCache != null) {
+                definitionCache.write(beans.values(), classFileReader.getReadAnnotations());
+            }
+        }
+        // 移除不满足@Conditional*、@Profile的定义，缓存中保存的是过滤前的定义，因此修改配置后不需要清除缓存
+        new ConditionEvaluator(propertyResolver, getContextClassLoader(), ACTIVE_PROFILES_PROPERTY).filter(beans);
+        // 创建类型索引
+        this.typeIndex = new BeanTypeIndex(beans.values());
+        startupTimeline.phase(StartupTimeline.Phase.DEFINITION, span);
 
         // 创建BeanNames检测循环依赖
-        this.creatingBeanNames = new HashSet<>();
+        this.creatingBeanNames = ConcurrentHashMap.newKeySet();
+        // prototype的Bean之间不允许循环依赖，否则每次创建都会无限递归
+        checkPrototypeDependencies();
 
         // 创建@Configuration类型的Bean
+        span = startupTimeline.beginPhase();
         this.beans.values().stream().filter(BeanDefinition::isConfiguration).sorted()
                 .forEach(this::createBeanAsEarlySingleton);
+        startupTimeline.phase(StartupTimeline.Phase.CONFIGURATION, span);
 
         // 创建beanPostProcessors
+        span = startupTimeline.beginPhase();
         this.beanPostProcessors.addAll(
                 this.beans.values().stream()
                         .filter(this::isBeanPostProcessor).sorted()
                         .map(def -> (BeanPostProcessor)createBeanAsEarlySingleton(def))
                         .toList()
         );
+        startupTimeline.phase(StartupTimeline.Phase.BEAN_POST_PROCESSOR, span);
 
         // 创建普通的Bean
-        createNormalBeans();
+        span = startupTimeline.beginPhase();
+        if (Boolean.TRUE.equals(propertyResolver.getProperty(PARALLEL_REFRESH_PROPERTY, Boolean.class))) {
+            createNormalBeansInParallel();
+        } else {
+            createNormalBeans();
+        }
+        startupTimeline.phase(StartupTimeline.Phase.INSTANTIATION, span);
 
-        // 通过字段和set方法注入依赖
-        this.beans.values().forEach(def -> {
+        // 通过字段和set方法注入依赖，懒加载的Bean在第一次使用时才注入，prototype的Bean每次创建时注入
+        span = startupTimeline.beginPhase();
+        this.beans.values().stream().filter(BeanDefinition::isEagerSingleton).forEach(def -> {
             injectBean(def);
         });
+        startupTimeline.phase(StartupTimeline.Phase.INJECTION, span);
+
         // 调用init方法
-        this.beans.values().forEach(def -> {
-            initBean(def);
-        });
+        span = startupTimeline.beginPhase();
+        if (Boolean.TRUE.equals(propertyResolver.getProperty(PARALLEL_INIT_PROPERTY, Boolean.class))) {
+            initBeansConcurrently();
+        } else {
+            this.beans.values().stream().filter(BeanDefinition::isEagerSingleton).forEach(def -> {
+                initBean(def);
+            });
+        }
+        startupTimeline.phase(StartupTimeline.Phase.INIT, span);
+
+        // 冻结注册表
+        this.registry = new SingletonRegistry(this.beans.values(), getTypeIndex());
+
+        // 冻结元数据
+        if (!Boolean.FALSE.equals(propertyResolver.getProperty(FREEZE_METADATA_PROPERTY, Boolean.class))) {
+            freezeMetadata();
+        }
+
+        writeStartupTimeline();
+
+        // 刷新成功后才对外发布，刷新过程中或刷新失败的容器不会被ApplicationContextUtils获取到
+        ApplicationContextUtils.setApplicationContext(this);
+    }
+
+    /**
+     * 冻结元数据：
+     * 1、已完成创建的单例丢弃构造方法、工厂方法、init方法，只保留依赖名称和destroy方法；
+     * 2、只被冻结的Bean使用的类，丢弃缓存的注入计划；
+     * 3、名称查找改为不可变的紧凑Map，按类型查找改由SingletonRegistry完成，丢弃类型索引。
+     * prototype、@Pooled以及尚未使用的懒加载Bean需要继续创建，不会被冻结。
+     */
+    void freezeMetadata() {
+        long before = estimateMetadataSize();
+        List<BeanDefinition> frozen = new ArrayList<>();
+        Set<Class<?>> liveClasses = new HashSet<>();
+        for (BeanDefinition def : this.beans.values()) {
+            if (def.getInstance() != null && !def.isPrototype() && !def.isPooled() && (!def.isLazy() || def.isInitialized())) {
+                frozen.add(def);
+            } else {
+                liveClasses.add(def.getBeanClass());
+            }
+        }
+        // 先计算全部依赖，再冻结，计算依赖时需要用到其他Bean的元数据
+        List<String[][]> dependencies = new ArrayList<>(frozen.size());
+        for (BeanDefinition def : frozen) {
+            dependencies.add(new String[][] {
+                    findCreationDependencies(def).stream().map(BeanDefinition::getName).toArray(String[]::new),
+                    findInjectionDependencies(def).stream().map(BeanDefinition::getName).toArray(String[]::new)
+            });
+        }
+        for (int i = 0; i < frozen.size(); i ++) {
+            BeanDefinition def = frozen.get(i);
+            def.freeze(dependencies.get(i)[0], dependencies.get(i)[1]);
+            if (!liveClasses.contains(def.getBeanClass())) {
+                InjectionPlan.forget(def.getBeanClass());
+            }
+        }
+        this.beans = Map.copyOf(this.beans);
+        this.typeIndex = null;
+        this.freezeReport = new FreezeReport(this.beans.size(), frozen.size(), before, estimateMetadataSize());
+    }
+
+    /**
+     * 估算BeanDefinition元数据（BeanDefinition、名称查找Map、类型索引、注入计划）占用的内存，各对象的大小见FreezeReport中的常量
+     */
+    long estimateMetadataSize() {
+        long size = this.beans instanceof HashMap
+                ? FreezeReport.sizeOfArray(this.beans.size() * 4 / 3) + (long) FreezeReport.HASH_MAP_ENTRY * this.beans.size()
+                : FreezeReport.sizeOfArray(0) + (long) FreezeReport.COMPACT_MAP_ENTRY * this.beans.size();
+        Set<Class<?>> planClasses = new HashSet<>();
+        for (BeanDefinition def : this.beans.values()) {
+            size += FreezeReport.BEAN_DEFINITION + FreezeReport.sizeOf(def.getName())
+                    + FreezeReport.sizeOf(def.getInitMethodName()) + FreezeReport.sizeOf(def.getDestroyMethodName());
+            if (def.getConstructor() != null) {
+                size += FreezeReport.sizeOfMember(def.getConstructor().getParameterCount());
+            }
+            if (def.getFactoryMethod() != null) {
+                size += FreezeReport.sizeOfMember(def.getFactoryMethod().getParameterCount());
+            }
+            if (def.getInitMethod() != null) {
+                size += FreezeReport.sizeOfMember(0);
+            }
+            if (def.getDestroyMethod() != null) {
+                size += FreezeReport.sizeOfMember(0);
+            }
+            if (def.isFrozen()) {
+                size += FreezeReport.sizeOfArray(def.getCreationDependencies().length)
+                        + FreezeReport.sizeOfArray(def.getInjectionDependencies().length);
+            } else {
+                planClasses.add(def.getBeanClass());
+            }
+        }
+        for (Class<?> clazz : planClasses) {
+            int points = InjectionPlan.of(clazz).getPoints().size();
+            size += FreezeReport.HEADER + FreezeReport.REF + FreezeReport.sizeOfArray(points)
+                    + (long) FreezeReport.INJECTION_POINT * points;
+        }
+        BeanTypeIndex index = this.typeIndex;
+        if (index != null) {
+            for (Class<?> type : index.getTypes()) {
+                // defsByType和resolutions各一个节点，以及列表和Resolution对象
+                size += 2L * FreezeReport.HASH_MAP_ENTRY + FreezeReport.IMMUTABLE_LIST
+                        + FreezeReport.sizeOfArray(index.findBeanDefinitions(type).size()) + FreezeReport.TYPE_RESOLUTION;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 返回冻结元数据的结果，包括冻结前后元数据的估算大小（不是实际测量值），未冻结时返回null
+     */
+    public FreezeReport getFreezeReport() {
+        return freezeReport;
+    }
+
+    /**
+     * 返回启动时间线，包括各阶段耗时、每个Bean的耗时、最慢的Bean及关键路径
+     */
+    public StartupTimeline getStartupTimeline() {
+        return startupTimeline;
+    }
+
+    void writeStartupTimeline() {
+        String file = propertyResolver.getProperty(STARTUP_TIMELINE_FILE_PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return;
+        }
+        try {
+            Files.writeString(Path.of(file), startupTimeline.toJson());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean containsBean(String name) {
+        SingletonRegistry r = this.registry;
+        boolean found = r != null ? r.findByName(name) != null : this.beans.containsKey(name);
+        return found || (this.parent != null && this.parent.containsBean(name));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(String name) {
+        SingletonRegistry r = this.registry;
+        BeanDefinition def = r != null ? r.findByName(name) : this.beans.get(name);
+        if (def == null) {
+            if (this.parent != null) {
+                return this.parent.getBean(name);
+            }
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s'.", name));
+        }
+        return (T) getBeanInstance(def);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(Class<T> requiredType) {
+        SingletonRegistry r = this.registry;
+        BeanDefinition def = r != null ? r.findByType(requiredType) : getTypeIndex().findBeanDefinition(requiredType);
+        if (def == null) {
+            if (this.parent != null) {
+                return this.parent.getBean(requiredType);
+            }
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with type '%s'.", requiredType.getName()));
+        }
+        return (T) getBeanInstance(def, requiredType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getBeans(Class<T> requiredType) {
+        List<BeanDefinition> defs = findBeanDefinitions(requiredType);
+        if (defs.isEmpty()) {
+            return List.of();
+        }
+        Object[] instances = new Object[defs.size()];
+        for (int i = 0; i < instances.length; i ++) {
+            instances[i] = getBeanInstance(defs.get(i), requiredType);
+        }
+        return (List<T>) List.of(instances);
+    }
+
+    Object getBeanInstance(BeanDefinition def) {
+        return getBeanInstance(def, def.getBeanClass());
+    }
+
+    /**
+     * 返回Bean实例，懒加载的Bean在第一次获取时创建，prototype的Bean每次都创建新实例，
+     * @Pooled的Bean返回type类型的对象池代理
+     */
+    Object getBeanInstance(BeanDefinition def, Class<?> type) {
+        if (def.isPooled()) {
+            return getPooledProxy(def, type);
+        }
+        if (def.isPrototype()) {
+            return getPrototypeBean(def);
+        }
+        if (def.isLazy()) {
+            return getLazyBean(def);
+        }
+        Object instance = def.getInstance();
+        if (instance == null) {
+            throw new BeanCreationException(String.format("Bean '%s' has not been created yet.", def.getName()));
+        }
+        return instance;
     }
 
     public void createNormalBeans() {
         // 获取尚未实例化的BeanDefinition列表
         List<BeanDefinition> defs =
-                this.beans.values().stream().filter(it -> it.getInstance() == null).sorted().toList();
+                this.beans.values().stream().filter(it -> it.getInstance() == null && it.isEagerSingleton()).sorted().toList();
 
         defs.forEach(
                 def -> {
@@ -79,13 +432,125 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         );
     }
 
+    /**
+     * 并行创建普通Bean：
+     * 1、根据构造方法/工厂方法的参数建立依赖图（DAG），同时检测循环依赖，经由prototype的依赖展开为对单例的依赖；
+     * 2、按拓扑顺序为每个Bean提交一个任务，任务在其依赖全部创建完成后才在ForkJoinPool中执行，
+     *    因此互不依赖的Bean可以同时创建。
+     */
+    void createNormalBeansInParallel() {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        this.beans.values().stream().filter(it -> it.getInstance() == null && it.isEagerSingleton()).sorted().forEach(graph::addNode);
+        for (BeanDefinition def : graph.getNodes()) {
+            for (BeanDefinition dependency : findSingletonCreationDependencies(def)) {
+                graph.addDependency(def, dependency);
+            }
+        }
+        List<BeanDefinition> ordered = graph.topologicalOrder();
+
+        // 构造方法和@Bean方法在工作线程中执行，需要与串行创建时相同的ContextClassLoader
+        ForkJoinPool pool = createWorkerPool();
+        try {
+            Map<String, CompletableFuture<Object>> futures = new HashMap<>();
+            for (BeanDefinition def : ordered) {
+                CompletableFuture<?>[] dependencies = graph.getDependencies(def).stream()
+                        .map(dependency -> futures.get(dependency.getName()))
+                        .toArray(CompletableFuture[]::new);
+                futures.put(def.getName(), CompletableFuture.allOf(dependencies)
+                        .thenApplyAsync(v -> createBeanAsEarlySingleton(def), pool));
+            }
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BeanCreationException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 查找def创建时（构造方法或工厂方法的@Autowired参数、工厂Bean）依赖的BeanDefinition
+     */
+    List<BeanDefinition> findCreationDependencies(BeanDefinition def) {
+        if (def.isFrozen()) {
+            return findBeanDefinitions(def.getCreationDependencies());
+        }
+        List<BeanDefinition> dependencies = new ArrayList<>();
+        Executable fn;
+        if (def.getFactoryName() != null) {
+            BeanDefinition factoryDef = findBeanDefinition(def.getFactoryName());
+            if (factoryDef != null) {
+                dependencies.add(factoryDef);
+            }
+            fn = def.getFactoryMethod();
+        } else {
+            fn = def.getConstructor();
+        }
+        Parameter[] params = fn.getParameters();
+        Annotation[][] paramsAnnos = fn.getParameterAnnotations();
+        for (int i = 0; i < params.length; i ++) {
+            Autowired autowired = ClassUtils.getAnnotation(paramsAnnos[i], Autowired.class);
+            if (autowired == null) {
+                continue;
+            }
+            DependencyDescriptor descriptor = DependencyDescriptor.of(params[i].getType(), params[i].getParameterizedType());
+            dependencies.addAll(findDependencyDefinitions(descriptor, autowired.name(), def));
+        }
+        return dependencies;
+    }
+
+    /**
+     * 查找def创建时需要用到的单例。def的构造方法/工厂方法执行期间，依赖的prototype会立即创建、注入，
+     * 并在锁住prototype的同时获取它依赖的单例，因此继续展开prototype创建和注入时的依赖，
+     * 否则 A -> prototype P -> B、B -> prototype Q -> A 这样的环在并行创建时不会被检测到，两个线程分别持有A和B的锁互相等待。
+     * 懒加载和@Pooled的Bean注入的是代理，父容器的Bean由父容器创建，都不展开。
+     */
+    private Set<BeanDefinition> findSingletonCreationDependencies(BeanDefinition def) {
+        Set<BeanDefinition> singletons = new LinkedHashSet<>();
+        Set<BeanDefinition> prototypes = new HashSet<>();
+        Deque<BeanDefinition> pending = new ArrayDeque<>(findCreationDependencies(def));
+        while (!pending.isEmpty()) {
+            BeanDefinition dependency = pending.poll();
+            if (!dependency.isPrototype() || dependency.isPooled() || isInherited(dependency)) {
+                singletons.add(dependency);
+            } else if (prototypes.add(dependency)) {
+                pending.addAll(findCreationDependencies(dependency));
+                pending.addAll(findInjectionDependencies(dependency));
+            }
+        }
+        return singletons;
+    }
+
     public Object createBeanAsEarlySingleton(BeanDefinition def) {
+        // 并行创建时，同一个Bean可能被多个线程请求（例如BeanPostProcessor中按名称创建拦截器），这里按BeanDefinition加锁
+        synchronized (def) {
+            if (def.getInstance() != null) {
+                return def.getInstance();
+            }
+            return doCreateBeanAsEarlySingleton(def);
+        }
+    }
+
+    Object doCreateBeanAsEarlySingleton(BeanDefinition def) {
         // 检测循环依赖
-        if (this.creatingBeanNames.add(def.getName())) {
+        if (!this.creatingBeanNames.add(def.getName())) {
             // 抛出循环依赖异常
             throw new BeanCreationException("创建【"+def.getName()+"】时检测到循环依赖");
         }
+        // 无论成功与否都移除，创建失败的懒加载Bean再次获取时不会被误判为循环依赖
+        try {
+            return instantiateBean(def);
+        } finally {
+            this.creatingBeanNames.remove(def.getName());
+        }
+    }
 
+    /**
+     * 调用构造方法或工厂方法创建实例，再交给BeanPostProcessor处理
+     */
+    private Object instantiateBean(BeanDefinition def) {
         // 创建方式：工厂方法或者构造函数
         Executable fn = null;
         if (def.getFactoryName() != null) {
@@ -95,6 +560,10 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         }
 
         // 创建参数
+        List<String> dependencyNames = new ArrayList<>();
+        if (def.getFactoryName() != null) {
+            dependencyNames.add(def.getFactoryName());
+        }
         Parameter[] params = fn.getParameters();
         Annotation[][] paramsAnnos = fn.getParameterAnnotations();
         Object[] args = new Object[params.length];
@@ -127,26 +596,32 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 String name = autowired.name();
                 boolean isRequired = autowired.value();
 
-                BeanDefinition dependDef = name.isEmpty() ? findBeanDefinition(type) : findBeanDefinition(name, type);
+                DependencyDescriptor descriptor = DependencyDescriptor.of(type, param.getParameterizedType());
+                BeanDefinition dependDef = findDependencyDefinition(descriptor, name);
+                if (descriptor.kind() != DependencyDescriptor.Kind.BEAN) {
+                    // ObjectProvider、Supplier、Optional、集合、数组
+                    findDependencyDefinitions(descriptor, name, def).forEach(it -> dependencyNames.add(it.getName()));
+                    args[i] = resolveWrappedDependency(descriptor, name, dependDef, def);
+                    continue;
+                }
                 if (isRequired && dependDef == null) {
                     throw new BeanCreationException(String.format("当创建Bean '%s': %s. 时，缺少 '%s' 的已注入的Bean", type.getName(),
                             def.getName(), def.getBeanClass().getName()));
                 }
 
                 if (dependDef != null) {
-                    Object dependDefInstance = dependDef.getInstance();
-                    if (dependDefInstance == null && !dependDef.isConfiguration()) {
-                        // 递归生成注入的Bean
-                        createBeanAsEarlySingleton(dependDef);
-                    }
-                    args[i] = dependDefInstance;
+                    dependencyNames.add(dependDef.getName());
+                    args[i] = getDependencyInstance(dependDef, type);
                 } else {
                     args[i] = null;
                 }
             }
         }
 
+        startupTimeline.dependencies(def.getName(), dependencyNames);
+
         // 创建Bean实例
+        StartupTimeline.Span span = startupTimeline.beginBean();
         Object instance = null;
         if (def.getFactoryName() == null) {
             // 构造方法创建
@@ -157,7 +632,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             }
         } else {
             // @Bean创建
-            Object factoryInstance = this.beans.get(def.getFactoryName());
+            Object factoryInstance = this.beans.get(def.getFactoryName()).getInstance();
             try {
                 instance = def.getFactoryMethod().invoke(factoryInstance, args);
             } catch (Exception e) {
@@ -165,38 +640,419 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             }
         }
         def.setInstance(instance);
+        if (instance instanceof ApplicationContextAware aware) {
+            aware.setApplicationContext(this);
+        }
+        startupTimeline.bean(def.getName(), StartupTimeline.BeanStep.CONSTRUCT, span);
 
         // 调用BeanPostProcessor来处理bean
         for (BeanPostProcessor postProcessor : beanPostProcessors) {
+            span = startupTimeline.beginBean();
             Object processed = postProcessor.postProcessBeforeInitialization(def.getInstance(), def.getName());
             if (processed == null) {
                 throw new BeanCreationException("postProcessor在Bean实例化前处理【"+def.getName()+"】出现空异常");
             }
-            // processed已被替换，则更新instance
+            // processed已被替换，则更新instance，替换实例的耗时记为代理生成
             if (def.getInstance() != processed) {
                 def.setInstance(processed);
+                startupTimeline.bean(def.getName(), StartupTimeline.BeanStep.PROXY, span);
+            } else {
+                startupTimeline.bean(def.getName(), StartupTimeline.BeanStep.POST_PROCESS, span);
             }
         }
         return def.getInstance();
     }
 
-    Set<String> scanForClassNames(Class<?> configClass) {
+    /**
+     * 获取要注入的依赖实例，type为注入点声明的类型：
+     * 1、懒加载且尚未完成创建的Bean，注入一个代理，在第一次调用方法时才创建；
+     * 2、尚未创建的Bean递归创建；
+     * 3、prototype的Bean每次注入一个新实例；
+     * 4、@Pooled的Bean注入对象池代理；
+     * 5、父容器中的Bean由父容器获取。
+     */
+    Object getDependencyInstance(BeanDefinition dependDef, Class<?> type) {
+        if (isInherited(dependDef)) {
+            return this.parent.getBean(dependDef.getName());
+        }
+        if (dependDef.isPooled()) {
+            return getPooledProxy(dependDef, type);
+        }
+        if (dependDef.isPrototype()) {
+            return getPrototypeBean(dependDef);
+        }
+        if (dependDef.isLazy()) {
+            if (dependDef.isInitialized()) {
+                return dependDef.getInstance();
+            }
+            return ProxyResolver.getInstance().createLazyProxy(type, () -> getLazyBean(dependDef));
+        }
+        Object instance = dependDef.getInstance();
+        if (instance == null && !dependDef.isConfiguration()) {
+            // 递归生成注入的Bean
+            instance = createBeanAsEarlySingleton(dependDef);
+        }
+        return instance;
+    }
+
+    /**
+     * 查找@Autowired注入点依赖的唯一BeanDefinition，ObjectProvider/Supplier是延迟解析的，集合和数组依赖多个Bean，都返回null
+     */
+    @Nullable
+    BeanDefinition findDependencyDefinition(DependencyDescriptor descriptor, String name) {
+        if (!descriptor.isEager() || descriptor.isMultiple()) {
+            return null;
+        }
+        return name.isEmpty() ? findBeanDefinition(descriptor.type()) : findBeanDefinition(name, descriptor.type());
+    }
+
+    /**
+     * 查找@Autowired注入点依赖的所有BeanDefinition，用于建立依赖图，集合和数组只查找本容器，忽略name，
+     * 并且不包括注入点所在的Bean（requester）自身，例如实现了Handler的CompositeHandler注入List<Handler>
+     */
+    List<BeanDefinition> findDependencyDefinitions(DependencyDescriptor descriptor, String name, @Nullable BeanDefinition requester) {
+        if (descriptor.isMultiple()) {
+            return findMultipleDependencyDefinitions(descriptor, requester);
+        }
+        BeanDefinition def = findDependencyDefinition(descriptor, name);
+        return def == null ? List.of() : List.of(def);
+    }
+
+    /**
+     * 解析包装类型的依赖：
+     * 1、ObjectProvider/Supplier注入一个第一次get()时才查找Bean的provider；
+     * 2、Optional立即解析，dependDef为null时为Optional.empty()；
+     * 3、集合和数组见resolveMultipleDependency()。
+     * requester为注入点所在的Bean，通过getBean()等方式获取时为null。
+     */
+    Object resolveWrappedDependency(DependencyDescriptor descriptor, String name, @Nullable BeanDefinition dependDef,
+                                    @Nullable BeanDefinition requester) {
+        if (descriptor.kind() == DependencyDescriptor.Kind.PROVIDER) {
+            return new BeanObjectProvider<>(this, descriptor.type(), name);
+        }
+        if (descriptor.isMultiple()) {
+            return resolveMultipleDependency(descriptor, requester);
+        }
+        return Optional.ofNullable(dependDef == null ? null : getDependencyInstance(dependDef, descriptor.type()));
+    }
+
+    /**
+     * 按@Order顺序解析本容器中除requester以外所有descriptor.type()类型的Bean，一次性生成不可变的集合，找不到时为空集合：
+     * 数组和List直接以数组保存，Set和Map（key为Bean名称）保持@Order顺序
+     */
+    Object resolveMultipleDependency(DependencyDescriptor descriptor, @Nullable BeanDefinition requester) {
+        List<BeanDefinition> defs = findMultipleDependencyDefinitions(descriptor, requester);
+        Object[] instances = (Object[]) Array.newInstance(descriptor.type(), defs.size());
+        for (int i = 0; i < instances.length; i ++) {
+            instances[i] = getDependencyInstance(defs.get(i), descriptor.type());
+        }
+        switch (descriptor.kind()) {
+            case ARRAY:
+                return instances;
+            case LIST:
+                return List.of(instances);
+            case SET:
+                return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(instances)));
+            default:
+                Map<String, Object> map = new LinkedHashMap<>(instances.length * 2);
+                for (int i = 0; i < instances.length; i ++) {
+                    map.put(defs.get(i).getName(), instances[i]);
+                }
+                return Collections.unmodifiableMap(map);
+        }
+    }
+
+    private List<BeanDefinition> findMultipleDependencyDefinitions(DependencyDescriptor descriptor, @Nullable BeanDefinition requester) {
+        List<BeanDefinition> defs = findBeanDefinitions(descriptor.type());
+        if (requester == null || !defs.contains(requester)) {
+            return defs;
+        }
+        return defs.stream().filter(def -> def != requester).toList();
+    }
+
+    /**
+     * ObjectProvider获取的Bean：调用方已经明确需要该Bean，懒加载的单例直接创建并初始化，不再返回懒加载代理
+     */
+    Object getProvidedInstance(BeanDefinition def, Class<?> type) {
+        if (def.isLazy() && !def.isPrototype() && !def.isPooled() && !isInherited(def)) {
+            return getLazyBean(def);
+        }
+        return getDependencyInstance(def, type);
+    }
+
+    /**
+     * 按缓存的创建计划创建一个prototype的Bean，创建计划在第一次获取时生成
+     */
+    Object getPrototypeBean(BeanDefinition def) {
+        PrototypeCreationPlan plan = def.getCreationPlan();
+        if (plan == null) {
+            synchronized (def) {
+                plan = def.getCreationPlan();
+                if (plan == null) {
+                    plan = createPrototypeCreationPlan(def);
+                    def.setCreationPlan(plan);
+                }
+            }
+        }
+        return plan.create();
+    }
+
+    /**
+     * 返回@Pooled的Bean的对象池，第一次获取时创建，池中的实例按prototype的创建计划创建
+     */
+    BeanPool getBeanPool(BeanDefinition def) {
+        BeanPool pool = def.getPool();
+        if (pool == null) {
+            synchronized (def) {
+                pool = def.getPool();
+                if (pool == null) {
+                    pool = new BeanPool(def.getName(), def.getPoolMax(), () -> getPrototypeBean(def));
+                    def.setPool(pool);
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 返回type类型的对象池代理，每次方法调用从池中借出一个实例，同一类型共用一个代理
+     */
+    Object getPooledProxy(BeanDefinition def, Class<?> type) {
+        BeanPool pool = getBeanPool(def);
+        return pool.getProxy(type, t -> ProxyResolver.getInstance().createPooledProxy(t, pool::borrow, pool::release));
+    }
+
+    /**
+     * 返回所有已创建的对象池的统计，key为Bean名称
+     */
+    public Map<String, BeanPool.Metrics> getPoolMetrics() {
+        Map<String, BeanPool.Metrics> metrics = new TreeMap<>();
+        for (BeanDefinition def : this.beans.values()) {
+            BeanPool pool = def.getPool();
+            if (pool != null) {
+                metrics.put(def.getName(), pool.getMetrics());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 生成prototype的Bean的创建计划：构造方法/工厂方法编译为MethodHandle，参数、注入点预先解析，
+     * 单例依赖和@Value解析为常量，prototype依赖每次创建时重新获取
+     */
+    PrototypeCreationPlan createPrototypeCreationPlan(BeanDefinition def) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Executable fn = def.getFactoryName() == null ? def.getConstructor() : def.getFactoryMethod();
+        MethodHandle creator;
+        try {
+            if (def.getFactoryName() == null) {
+                creator = lookup.unreflectConstructor(def.getConstructor());
+            } else {
+                creator = lookup.unreflect(def.getFactoryMethod());
+                if (!Modifier.isStatic(def.getFactoryMethod().getModifiers())) {
+                    creator = creator.bindTo(getBeanInstance(findBeanDefinition(def.getFactoryName())));
+                }
+            }
+            creator = creator.asFixedArity().asSpreader(Object[].class, fn.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException(String.format("创建Bean '%s' 的创建计划出错", def.getName()), e);
+        }
+
+        // 构造方法/工厂方法参数
+        Parameter[] params = fn.getParameters();
+        Annotation[][] paramsAnnos = fn.getParameterAnnotations();
+        Supplier<?>[] arguments = new Supplier<?>[params.length];
+        for (int i = 0; i < params.length; i ++) {
+            Value value = ClassUtils.getAnnotation(paramsAnnos[i], Value.class);
+            Autowired autowired = ClassUtils.getAnnotation(paramsAnnos[i], Autowired.class);
+            if (value == null && autowired == null) {
+                throw new BeanCreationException(def.getName() + "的参数，必须由Value或者Autowired注解");
+            }
+            if (value != null && autowired != null) {
+                throw new BeanCreationException(def.getName() + "的参数，只能由Value或者Autowired注解");
+            }
+            Class<?> type = params[i].getType();
+            if (value != null) {
+                Object v = this.propertyResolver.getProperty(value.value(), type);
+                arguments[i] = () -> v;
+            } else {
+                DependencyDescriptor descriptor = DependencyDescriptor.of(type, params[i].getParameterizedType());
+                BeanDefinition dependDef = findDependencyDefinition(descriptor, autowired.name());
+                if (descriptor.kind() != DependencyDescriptor.Kind.BEAN) {
+                    arguments[i] = createWrappedDependencySupplier(descriptor, autowired.name(), dependDef, def);
+                    continue;
+                }
+                if (autowired.value() && dependDef == null) {
+                    throw new BeanCreationException(String.format("当创建Bean '%s': %s. 时，缺少 '%s' 的已注入的Bean", type.getName(),
+                            def.getName(), def.getBeanClass().getName()));
+                }
+                arguments[i] = createDependencySupplier(dependDef, type, null);
+            }
+        }
+
+        // 字段和set方法注入
+        InjectionPlan injectionPlan = InjectionPlan.of(def.getBeanClass());
+        List<InjectionPlan.InjectionPoint> points = injectionPlan.getPoints();
+        Supplier<?>[] injectionValues = new Supplier<?>[points.size()];
+        for (int i = 0; i < injectionValues.length; i ++) {
+            InjectionPlan.InjectionPoint point = points.get(i);
+            if (point.value() != null) {
+                Object v = this.propertyResolver.getProperty(point.value().value(), point.type());
+                injectionValues[i] = () -> v;
+            } else {
+                String name = point.autowired().name();
+                DependencyDescriptor descriptor = DependencyDescriptor.of(point.type(), point.genericType());
+                BeanDefinition dependDef = findDependencyDefinition(descriptor, name);
+                if (descriptor.kind() != DependencyDescriptor.Kind.BEAN) {
+                    injectionValues[i] = createWrappedDependencySupplier(descriptor, name, dependDef, def);
+                    continue;
+                }
+                if (point.autowired().value() && dependDef == null) {
+                    throw new BeanCreationException("注入"+point.name()+"时该Bean不存在");
+                }
+                injectionValues[i] = createDependencySupplier(dependDef, point.type(), InjectionPlan.SKIP);
+            }
+        }
+
+        // @PostConstruct方法，@Bean的initMethod与callMethod()一致在实例的实际类型上查找，由计划在创建时解析
+        MethodHandle initMethod = null;
+        if (def.getInitMethod() != null) {
+            initMethod = PrototypeCreationPlan.unreflectInitMethod(def.getName(), def.getInitMethod());
+        }
+
+        return new PrototypeCreationPlan(def.getName(), this, creator, arguments, injectionPlan, injectionValues,
+                this.beanPostProcessors.toArray(new BeanPostProcessor[0]), initMethod, def.getInitMethodName());
+    }
+
+    /**
+     * prototype依赖每次重新获取，其他依赖在生成计划时获取一次，dependDef为null时返回missing
+     */
+    private Supplier<?> createDependencySupplier(BeanDefinition dependDef, Class<?> type, Object missing) {
+        if (dependDef == null) {
+            return () -> missing;
+        }
+        if (dependDef.isPrototype()) {
+            return () -> getDependencyInstance(dependDef, type);
+        }
+        Object instance = getDependencyInstance(dependDef, type);
+        return () -> instance;
+    }
+
+    /**
+     * provider本身可以复用，Optional、集合和数组中有prototype依赖时每次重新解析
+     */
+    private Supplier<?> createWrappedDependencySupplier(DependencyDescriptor descriptor, String name, BeanDefinition dependDef,
+                                                        BeanDefinition requester) {
+        boolean hasPrototype = descriptor.isEager()
+                && findDependencyDefinitions(descriptor, name, requester).stream().anyMatch(BeanDefinition::isPrototype);
+        if (!hasPrototype) {
+            Object value = resolveWrappedDependency(descriptor, name, dependDef, requester);
+            return () -> value;
+        }
+        return () -> resolveWrappedDependency(descriptor, name, dependDef, requester);
+    }
+
+    /**
+     * prototype的Bean之间（构造方法/工厂方法参数、@Autowired字段和set方法）不允许存在循环依赖。
+     * 经由prototype回到单例自身的创建依赖环，串行创建时由creatingBeanNames检测，
+     * 并行创建时由findSingletonCreationDependencies()展开后在依赖图中检测。
+     */
+    void checkPrototypeDependencies() {
+        if (this.beans.values().stream().anyMatch(BeanDefinition::isPrototype)) {
+            // 注入自身的prototype每次创建都会再创建一个自身，同样是循环依赖
+            createFullDependencyGraph(BeanDefinition::isPrototype, false).topologicalOrder();
+        }
+    }
+
+    /**
+     * 获取懒加载的Bean，第一次获取时完成创建、注入和初始化。
+     * 其他线程只有在初始化完成后才能通过isInitialized()看到该实例。
+     */
+    Object getLazyBean(BeanDefinition def) {
+        if (def.isInitialized()) {
+            return def.getInstance();
+        }
+        synchronized (def) {
+            if (!def.isInitialized()) {
+                createBeanAsEarlySingleton(def);
+                injectBean(def);
+                initBean(def);
+                def.setInitialized(true);
+            }
+            return def.getInstance();
+        }
+    }
+
+    /**
+     * 返回@ComponentScan指定的包，未指定时为配置类所在的包
+     */
+    String[] getScanPackages(Class<?> configClass) {
         ComponentScan scan = ClassUtils.findAnnotation(configClass, ComponentScan.class);
-        String[] packages = scan.value() == null || scan.value().length == 0
+        return scan.value() == null || scan.value().length == 0
                 ? new String[] {configClass.getPackageName()} : scan.value();
+    }
+
+    /**
+     * 配置了summer.context.definition-cache时，返回以classpath指纹为key的BeanDefinition缓存，否则返回null。
+     * 指纹包括配置类名、扫描包，以及所有扫描包、配置类和@Import的类、META-INF/summer.components所在jar包/目录的路径、大小、修改时间，
+     * 扫描时读取的注解由缓存自己记录。
+     */
+    BeanDefinitionCache createBeanDefinitionCache(Class<?> configClass) {
+        String file = propertyResolver.getProperty(DEFINITION_CACHE_PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        String[] packages = getScanPackages(configClass);
+        List<String> resources = new ArrayList<>();
+        resources.add(toResourceName(configClass));
+        Import importConfig = configClass.getAnnotation(Import.class);
+        if (importConfig != null) {
+            for (Class<?> importConfigClass : importConfig.value()) {
+                resources.add(toResourceName(importConfigClass));
+            }
+        }
+        resources.add(ComponentIndex.LOCATION);
+        ResourceResolver rr = new ResourceResolver(List.of(packages), null);
+        String fingerprint = configClass.getName() + '|' + String.join(",", packages) + '=' + rr.fingerprint(resources);
+        return new BeanDefinitionCache(Path.of(file), fingerprint, rr::fingerprint);
+    }
+
+    private static String toResourceName(Class<?> clazz) {
+        return clazz.getName().replace('.', '/') + ".class";
+    }
+
+    Set<String> scanForClassNames(Class<?> configClass, ClassFileReader classFileReader) {
+        String[] packages = getScanPackages(configClass);
 
         Set<String> classNameSet = new HashSet<>();
-        for (String pkg : packages) {
-            ResourceResolver rr = new ResourceResolver(pkg);
-            List<String> classList = rr.scan(res -> {
-                String name = res.name();
-                if (name.endsWith(".class")) {
-                    return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
-                }
-                return null;
-            });
-            // 将扫描结果放入classSet
-            classNameSet.addAll(classList);
+        Function<Resource, String> mapper = res -> {
+            String name = res.name();
+            if (name.endsWith(".class") && isComponentCandidate(classFileReader, res)) {
+                return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
+            }
+            return null;
+        };
+        ComponentIndex index = this.componentIndex;
+        if (index != null) {
+            // 有索引的classpath根直接从索引读取
+            for (String pkg : packages) {
+                classNameSet.addAll(index.getComponentClassNames(pkg));
+            }
+        }
+        // 所有包在一次扫描中完成，每个classpath根只遍历一次，只扫描没有索引的根，扫描结束后关闭打开的jar包
+        ForkJoinPool pool = Boolean.TRUE.equals(propertyResolver.getProperty(PARALLEL_SCAN_PROPERTY, Boolean.class))
+                ? createWorkerPool() : null;
+        try (JarReaderCache jarReaderCache = new JarReaderCache()) {
+            ResourceResolver rr = new ResourceResolver(List.of(packages), jarReaderCache,
+                    index == null ? root -> true : root -> !index.covers(root));
+            classNameSet.addAll(pool == null ? rr.scan(mapper) : rr.scan(mapper, pool));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
         }
 
         // 继续查找@Import(Xyz.class)导入的Class配置:
@@ -210,32 +1066,69 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         return classNameSet;
     }
 
+    /**
+     * 创建并行扫描、并发调用init方法等使用的ForkJoinPool，并行度为summer.context.parallelism。
+     * 默认的工作线程以系统ClassLoader作为ContextClassLoader，这里改为当前线程的ContextClassLoader（Web应用中为WebAppClassLoader），
+     * 使工作线程中读取class文件、通过ContextClassLoader查找资源的代码与在当前线程中执行时一致
+     */
+    ForkJoinPool createWorkerPool() {
+        Integer parallelism = propertyResolver.getProperty(PARALLELISM_PROPERTY, Integer.class);
+        ClassLoader classLoader = getContextClassLoader();
+        return new ForkJoinPool(parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 直接解析class文件判断是否（间接）标注了@Component，只有候选类才会被加载，
+     * 避免为DTO、工具类等永远不会成为Bean的类执行Class.forName和静态初始化
+     */
+    boolean isComponentCandidate(ClassFileReader reader, Resource resource) {
+        ByteBuffer bytes;
+        try {
+            // 扫描时已知文件所在的目录或jar包，直接读取，不再通过ClassLoader查找
+            bytes = resource.asByteBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            ClassFileReader.ClassMetadata metadata = ClassFileReader.read(bytes);
+            return metadata.isClass() && reader.hasAnnotation(metadata, Component.class.getName());
+        } catch (IllegalArgumentException e) {
+            // 无法解析的class文件交给反射判断
+            return true;
+        }
+    }
+
     Map<String, BeanDefinition> createBeanDefinitions(Set<String> classNameSet) {
         Map<String, BeanDefinition> defs = new HashMap<>();
         for (String className : classNameSet) {
-            Class<?> clazz = null;
-            try {
-                clazz = Class.forName(className);
-            } catch (ClassNotFoundException e) {
-                throw new BeanDefinitionException(e);
+            ComponentIndex.Entry entry = this.componentIndex == null ? null : this.componentIndex.getComponent(className);
+            if (entry != null) {
+                createIndexedBeanDefinitions(entry, defs);
+                continue;
             }
-            // 寻找Component注解
-            Component component = ClassUtils.findAnnotation(clazz, Component.class);
+            Class<?> clazz = loadClass(className);
+            // 寻找Component注解，注解元数据按Class缓存，只解析一次
+            AnnotationMetadata metadata = AnnotationMetadata.of(clazz);
+            Component component = metadata.findAnnotation(Component.class);
             if (component != null) {
                 // 获取bean名称
-                String beanName = ClassUtils.getBeanName(clazz);
+                String beanName = metadata.getBeanName();
                 // 构造BeanDefinition
                 BeanDefinition def = new BeanDefinition(
-                        beanName, clazz, getSuitableConstructor(clazz), getOrder(clazz), clazz.isAnnotationPresent(Primary.class),
+                        beanName, clazz, getSuitableConstructor(clazz), metadata.getOrder(), metadata.isPrimary(),
                         // 无factory
                         // initMethod、destroyMethod
                         null, null,
-                        ClassUtils.findAnnotationMethod(clazz, PostConstruct.class),
-                        ClassUtils.findAnnotationMethod(clazz, PreDestroy.class)
+                        metadata.getPostConstructMethod(),
+                        metadata.getPreDestroyMethod()
                 );
                 addBeanDefinitions(defs, def);
                 // 如果有Configuration，则扫描其中的Bean方法
-                Configuration configuration = ClassUtils.findAnnotation(clazz, Configuration.class);
+                Configuration configuration = metadata.findAnnotation(Configuration.class);
                 if (configuration != null) {
                     scanFactoryMethods(beanName, clazz, defs);
                 }
@@ -244,35 +1137,129 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         return defs;
     }
 
+    /**
+     * 根据组件索引中的记录创建BeanDefinition，名称、@Order和@Primary直接取自索引
+     */
+    void createIndexedBeanDefinitions(ComponentIndex.Entry entry, Map<String, BeanDefinition> defs) {
+        Class<?> clazz = loadClass(entry.className());
+        AnnotationMetadata metadata = AnnotationMetadata.of(clazz);
+        BeanDefinition def = new BeanDefinition(
+                entry.beanName(), clazz, getSuitableConstructor(clazz), entry.order(), entry.primary(),
+                null, null,
+                metadata.getPostConstructMethod(),
+                metadata.getPreDestroyMethod()
+        );
+        addBeanDefinitions(defs, def);
+        if (ComponentIndex.KIND_CONFIGURATION.equals(entry.kind())) {
+            // 按方法签名匹配，重载的@Bean方法各自对应一条记录
+            Map<String, ComponentIndex.Entry> methodEntries = new HashMap<>();
+            for (ComponentIndex.Entry methodEntry : this.componentIndex.getFactoryMethods(entry.className())) {
+                methodEntries.put(methodEntry.methodSignature(), methodEntry);
+            }
+            for (Method method : clazz.getDeclaredMethods()) {
+                ComponentIndex.Entry methodEntry = methodEntries.get(ComponentIndex.signature(method));
+                Bean bean = method.getAnnotation(Bean.class);
+                if (methodEntry != null && bean != null) {
+                    addBeanDefinitions(defs, createFactoryBeanDefinition(entry.beanName(), method, bean,
+                            methodEntry.beanName(), methodEntry.order(), methodEntry.primary()));
+                }
+            }
+        }
+    }
+
     void scanFactoryMethods(String factoryBeanName, Class<?> clazz, Map<String, BeanDefinition> defs) {
         for (Method method: clazz.getDeclaredMethods()) {
             Bean bean = method.getAnnotation(Bean.class);
             if (bean != null) {
-                // Bean的声明类型是方法返回类型:
-                Class<?> beanClass = method.getReturnType();
-                var def = new BeanDefinition(
-                        ClassUtils.getBeanName(method), beanClass,
-                        factoryBeanName,
-                        // 创建Bean的工厂方法:
-                        method,
+                var def = createFactoryBeanDefinition(factoryBeanName, method, bean,
+                        ClassUtils.getBeanName(method),
                         // @Order
                         getOrder(method),
                         // 是否存在@Primary标注?
-                        method.isAnnotationPresent(Primary.class),
-                        // init方法名称:
-                        bean.initMethod().isEmpty() ? null : bean.initMethod(),
-                        // destroy方法名称:
-                        bean.destroyMethod().isEmpty() ? null : bean.destroyMethod(),
-                        // @PostConstruct / @PreDestroy方法:
-                        null, null);
+                        method.isAnnotationPresent(Primary.class));
                 addBeanDefinitions(defs, def);
             }
         }
     }
 
+    BeanDefinition createFactoryBeanDefinition(String factoryBeanName, Method method, Bean bean, String beanName, int order, boolean primary) {
+        // Bean的声明类型是方法返回类型:
+        Class<?> beanClass = method.getReturnType();
+        return new BeanDefinition(
+                beanName, beanClass,
+                factoryBeanName,
+                // 创建Bean的工厂方法:
+                method,
+                order,
+                primary,
+                // init方法名称:
+                bean.initMethod().isEmpty() ? null : bean.initMethod(),
+                // destroy方法名称:
+                bean.destroyMethod().isEmpty() ? null : bean.destroyMethod(),
+                // @PostConstruct / @PreDestroy方法:
+                null, null);
+    }
+
+    ComponentIndex loadComponentIndex() {
+        if (Boolean.FALSE.equals(propertyResolver.getProperty(COMPONENT_INDEX_PROPERTY, Boolean.class))) {
+            return null;
+        }
+        return ComponentIndex.load(getContextClassLoader());
+    }
+
+    /**
+     * 加载但不初始化class，静态初始化推迟到真正创建Bean实例时
+     */
+    Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new BeanDefinitionException(e);
+        }
+    }
+
+    ClassLoader getContextClassLoader() {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        if (cl == null) {
+            cl = getClass().getClassLoader();
+        }
+        return cl;
+    }
+
     void injectBean(BeanDefinition def) {
+        StartupTimeline.Span span = startupTimeline.beginBean();
         // 因为BeanPostProcessor可能修改掉bean实例，所以这里不能直接使用def.getInstance获取实例，要去拿原始的实例
         injectProperties(def, def.getBeanClass(), getProxiedInstance(def));
+        startupTimeline.bean(def.getName(), StartupTimeline.BeanStep.INJECT, span);
+    }
+
+    private List<BeanDefinition> findBeanDefinitions(String[] names) {
+        List<BeanDefinition> defs = new ArrayList<>(names.length);
+        for (String name : names) {
+            BeanDefinition def = findBeanDefinition(name);
+            if (def != null) {
+                defs.add(def);
+            }
+        }
+        return defs;
+    }
+
+    /**
+     * 查找def通过@Autowired字段、set方法注入的BeanDefinition
+     */
+    List<BeanDefinition> findInjectionDependencies(BeanDefinition def) {
+        if (def.isFrozen()) {
+            return findBeanDefinitions(def.getInjectionDependencies());
+        }
+        List<BeanDefinition> dependencies = new ArrayList<>();
+        for (InjectionPlan.InjectionPoint point : InjectionPlan.of(def.getBeanClass()).getPoints()) {
+            if (point.autowired() == null) {
+                continue;
+            }
+            DependencyDescriptor descriptor = DependencyDescriptor.of(point.type(), point.genericType());
+            dependencies.addAll(findDependencyDefinitions(descriptor, point.autowired().name(), def));
+        }
+        return dependencies;
     }
 
     Object getProxiedInstance(BeanDefinition def) {
@@ -288,96 +1275,99 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         return instance;
     }
 
-    void initBean(BeanDefinition def) {
-        callMethod(def.getInstance(), def.getInitMethod(), def.getInitMethodName());
-    }
+    /**
+     * 并发调用非懒加载Bean的init方法：
+     * 1、一个Bean的init方法在它依赖（构造方法/工厂方法参数、@Autowired字段和set方法）的Bean的init方法都完成之后才执行；
+     * 2、互不依赖的Bean在createInitExecutor()返回的线程池中同时执行；
+     * 3、所有失败汇总为一个BeanCreationException，每个失败作为suppressed异常，依赖失败Bean的Bean不再执行init方法。
+     */
+    void initBeansConcurrently() {
+        BeanDependencyGraph graph = createDependencyGraph(BeanDefinition::isEagerSingleton);
+        List<BeanDefinition> ordered = graph.topologicalOrder();
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
 
-    void injectProperties(BeanDefinition def, Class<?> clazz, Object bean) {
-        // 在当前类查找field和method并注入
-        for (Field f : clazz.getDeclaredFields()) {
-            try {
-                tryInjectField(bean, f);
-            } catch (ReflectiveOperationException e) {
-                throw new BeanCreationException("【"+def.getName()+"】注入字段【"+f.getName()+"】失败");
-            }
-        }
-        for (Method m : clazz.getDeclaredMethods()) {
-            try {
-                tryInjectMethod(bean, m);
-            } catch (ReflectiveOperationException e) {
-                throw new BeanCreationException("【"+def.getName()+"注入Method【"+m.getName()+"】失败");
+        ExecutorService executor = createInitExecutor();
+        try {
+            Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+            for (BeanDefinition def : ordered) {
+                CompletableFuture<?>[] dependencies = graph.getDependencies(def).stream()
+                        .map(dependency -> futures.get(dependency.getName()))
+                        .toArray(CompletableFuture[]::new);
+                futures.put(def.getName(), CompletableFuture.allOf(dependencies)
+                        .thenRunAsync(() -> {
+                            try {
+                                initBean(def);
+                            } catch (RuntimeException | Error e) {
+                                failures.put(def.getName(), e);
+                                throw e;
+                            }
+                        }, executor));
             }
+            // 失败已记录在failures中，这里只等待全部结束
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .handle((v, e) -> null).join();
+        } finally {
+            executor.shutdown();
         }
 
-        // 在父类查找field和method并注入
-        Class<?> supperClass = clazz.getSuperclass();
-        if (supperClass != null) {
-            injectProperties(def, supperClass, bean);
+        if (!failures.isEmpty()) {
+            BeanCreationException e = new BeanCreationException("调用init方法失败：" + new TreeSet<>(failures.keySet()));
+            failures.values().forEach(e::addSuppressed);
+            throw e;
         }
     }
 
-    void tryInjectField(Object bean, Field field) throws ReflectiveOperationException {
-        Value value = field.getAnnotation(Value.class);
-        Autowired autowired = field.getAnnotation(Autowired.class);
-        if (value == null && autowired == null) {
-            return;
-        }
-        if (value != null && autowired != null) {
-            throw new BeanCreationException("注入字段时，字段不能同时被Value和Autowired注解");
-        }
-
-        field.setAccessible(true);
-
-        // value注入
-        if (value != null) {
-            Object propValue = this.propertyResolver.getProperty(value.value(), field.getType());
-            field.set(bean, propValue);
-        }
-
-        // autowired注入
-        if (autowired != null) {
-            String name = autowired.name();
-            boolean isRequired = autowired.value();
-            Object depends = name.isEmpty() ? findBeanDefinition(field.getType()) : findBeanDefinition(name, field.getType());
-            if (isRequired && depends == null) {
-                throw new BeanCreationException("注入"+name+"时该Bean不存在");
-            }
-            if (depends != null) {
-                field.set(bean, depends);
+    /**
+     * 创建并发调用init方法的线程池，子类可以覆盖以使用自定义的线程池
+     */
+    protected ExecutorService createInitExecutor() {
+        if ("virtual".equalsIgnoreCase(propertyResolver.getProperty(INIT_EXECUTOR_PROPERTY))) {
+            // 以反射调用，避免编译期依赖JDK 21
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new BeanCreationException("当前JDK不支持虚拟线程", e);
             }
         }
+        return createWorkerPool();
     }
 
-    void tryInjectMethod(Object bean, Method method) throws ReflectiveOperationException {
-        Value value = method.getAnnotation(Value.class);
-        Autowired autowired = method.getAnnotation(Autowired.class);
-        if (value == null && autowired == null) {
-            return;
-        }
-        if (value != null && autowired != null) {
-            throw new BeanCreationException("注入Method时，Method不能同时被Value和Autowired注解");
-        }
+    void initBean(BeanDefinition def) {
+        StartupTimeline.Span span = startupTimeline.beginBean();
+        callMethod(def.getInstance(), def.getInitMethod(), def.getInitMethodName());
+        startupTimeline.bean(def.getName(), StartupTimeline.BeanStep.INIT, span);
+    }
 
-        method.setAccessible(true);
+    /**
+     * 按类缓存的注入计划向bean注入@Value和@Autowired标注的字段、set方法，包括父类中的
+     */
+    void injectProperties(BeanDefinition def, Class<?> clazz, Object bean) {
+        InjectionPlan.of(clazz).inject(def.getName(), bean, point -> resolveInjectionValue(def, point));
+    }
 
+    /**
+     * 解析注入点要注入的值，非必须的@Autowired找不到Bean时返回InjectionPlan.SKIP
+     */
+    Object resolveInjectionValue(BeanDefinition def, InjectionPlan.InjectionPoint point) {
         // value注入
-        if (value != null) {
-            Object propValue = this.propertyResolver.getProperty(value.value(), method.getReturnType());
-            method.invoke(bean, propValue);
+        if (point.value() != null) {
+            return this.propertyResolver.getProperty(point.value().value(), point.type());
         }
-
         // autowired注入
-        if (autowired != null) {
-            String name = autowired.name();
-            boolean isRequired = autowired.value();
-            Object depends = name.isEmpty() ? findBeanDefinition(method.getReturnType()) : findBeanDefinition(name, method.getReturnType());
-            if (isRequired && depends == null) {
-                throw new BeanCreationException("注入"+name+"时该Bean不存在");
-            }
-            if (depends != null) {
-                method.invoke(bean, depends);
-            }
+        String name = point.autowired().name();
+        boolean isRequired = point.autowired().value();
+        DependencyDescriptor descriptor = DependencyDescriptor.of(point.type(), point.genericType());
+        BeanDefinition depends = findDependencyDefinition(descriptor, name);
+        if (descriptor.kind() != DependencyDescriptor.Kind.BEAN) {
+            return resolveWrappedDependency(descriptor, name, depends, def);
+        }
+        if (isRequired && depends == null) {
+            throw new BeanCreationException("注入"+point.name()+"时该Bean不存在");
         }
+        if (depends == null) {
+            return InjectionPlan.SKIP;
+        }
+        return getDependencyInstance(depends, point.type());
     }
 
     /**
@@ -407,8 +1397,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     }
 
     public int getOrder(Class<?> clazz) {
-        Order order = ClassUtils.findAnnotation(clazz, Order.class);
-        return order == null ? Integer.MAX_VALUE : order.value();
+        return AnnotationMetadata.of(clazz).getOrder();
     }
 
     public int getOrder(Method method) {
@@ -420,7 +1409,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     public BeanDefinition findBeanDefinition(String name, Class<?> type) {
         BeanDefinition def = beans.get(name);
         if (def == null) {
-            return null;
+            return this.parent == null ? null : this.parent.findBeanDefinition(name, type);
         }
 
         if (type != def.getBeanClass()) {
@@ -436,47 +1425,69 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (defs.put(def.getName(), def) != null) {
             throw new BeanDefinitionException("Duplicate bean name: " + def.getName());
         }
+        this.typeIndex = null;
     }
 
+    /**
+     * 根据type查找唯一的BeanDefinition，多于一个时返回唯一的@Primary，@Primary的选择在构建类型索引时已经完成。
+     * 本容器中找不到时从父容器查找。
+     */
     @Nullable
     public BeanDefinition findBeanDefinition(Class<?> type) {
-        List<BeanDefinition> beanDefinitions = findBeanDefinitions(type);
-        if (beanDefinitions.isEmpty()) {
-            return null;
-        }
-        if (beanDefinitions.size() == 1) {
-            return beanDefinitions.get(0);
-        }
-        // 多余一个时，查找primary
-        List<BeanDefinition> primaryDefs = beanDefinitions.stream().filter(BeanDefinition::isPrimary).toList();
-        if (primaryDefs.size() == 1) {
-            return primaryDefs.get(0);
-        }
-        if (primaryDefs.isEmpty()) { // 不存在@Primary
-            throw new BeanDefinitionException(
-                    String.format("Multiple bean with type '%s' found, but no @Primary specified.", type.getName()));
-        } else { // @Primary不唯一
-            throw new BeanDefinitionException(
-                    String.format("Multiple bean with type '%s' found, and multiple @Primary specified.", type.getName()));
+        SingletonRegistry r = this.registry;
+        BeanDefinition def = r != null ? r.findByType(type) : getTypeIndex().findBeanDefinition(type);
+        if (def == null && this.parent != null) {
+            return this.parent.findBeanDefinition(type);
         }
+        return def;
     }
 
 
     @Override
     public BeanDefinition findBeanDefinition(String name) {
-        return this.beans.get(name);
+        BeanDefinition def = this.beans.get(name);
+        if (def == null && this.parent != null) {
+            return this.parent.findBeanDefinition(name);
+        }
+        return def;
+    }
+
+    @Override
+    @Nullable
+    public ConfigurableApplicationContext getParent() {
+        return this.parent;
     }
 
     /**
-     * 根据type查找若干个BeanDefinition，返回0个或者多个
-     *
-     * type.isAssignableFrom(def.getClass())的意思是，def的类型是否是type或者其子类
+     * def是否属于父容器，父容器中的Bean的创建、代理和生命周期都由父容器负责
+     */
+    boolean isInherited(BeanDefinition def) {
+        return this.parent != null && this.beans.get(def.getName()) != def;
+    }
+
+    /**
+     * 根据type查找若干个BeanDefinition，返回0个或者多个，即def的类型是type或者其子类，结果已按@Order排序。
+     * 只查找本容器，不包括父容器。
      */
     public List<BeanDefinition> findBeanDefinitions(Class<?> type) {
-        return beans.values().stream().filter(def -> type.isAssignableFrom(def.getClass())).sorted().toList();
+        SingletonRegistry r = this.registry;
+        return r != null ? r.findAllByType(type) : getTypeIndex().findBeanDefinitions(type);
+    }
+
+    BeanTypeIndex getTypeIndex() {
+        BeanTypeIndex index = this.typeIndex;
+        if (index == null) {
+            index = new BeanTypeIndex(this.beans.values());
+            this.typeIndex = index;
+        }
+        return index;
     }
 
     private void callMethod(Object beanInstance, Method method, String namedMethod) {
+        // 未定义init/destroy方法
+        if (method == null && namedMethod == null) {
+            return;
+        }
         if (method != null) {
             try {
                 method.invoke(beanInstance);
@@ -496,18 +1507,118 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         }
     }
 
+    /**
+     * 返回最近一次关闭容器的结果，尚未关闭时返回null
+     */
+    public ShutdownReport getShutdownReport() {
+        return shutdownReport;
+    }
+
+    /**
+     * 建立filter选中的Bean之间的依赖图，包括构造方法/工厂方法参数和@Autowired字段、set方法。
+     * 字段注入允许循环依赖，此时只去掉环上（同一个强连通分量中）的注入依赖，其余的注入依赖仍然决定先后顺序，
+     * 创建时的依赖不可能有环，因此得到的图一定是无环的。
+     */
+    BeanDependencyGraph createDependencyGraph(Predicate<BeanDefinition> filter) {
+        BeanDependencyGraph graph = createFullDependencyGraph(filter, true);
+        graph.removeInjectionCycles();
+        return graph;
+    }
+
+    /**
+     * 建立filter选中的Bean之间完整的依赖图，不去掉任何环。
+     * allowSelfInjection为true时忽略注入自身的字段、set方法（单例注入自身不影响先后顺序），否则作为循环依赖抛出异常。
+     */
+    private BeanDependencyGraph createFullDependencyGraph(Predicate<BeanDefinition> filter, boolean allowSelfInjection) {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        this.beans.values().stream().filter(filter).sorted().forEach(graph::addNode);
+        for (BeanDefinition def : graph.getNodes()) {
+            for (BeanDefinition dependency : findCreationDependencies(def)) {
+                graph.addDependency(def, dependency);
+            }
+            for (BeanDefinition dependency : findInjectionDependencies(def)) {
+                if (dependency != def || !allowSelfInjection) {
+                    graph.addInjectionDependency(def, dependency);
+                }
+            }
+        }
+        return graph;
+    }
+
+    void destroyBean(BeanDefinition def) {
+        Object instance = getProxiedInstance(def);
+        callMethod(instance, def.getDestroyMethod(), def.getDestroyMethodName());
+    }
+
     private boolean isBeanPostProcessor(BeanDefinition def) {
         return BeanPostProcessor.class.isAssignableFrom(def.getBeanClass());
     }
 
+    /**
+     * 按依赖的逆序关闭容器：
+     * 1、一个Bean的销毁方法在所有依赖它的Bean销毁之后才执行，互不依赖的Bean并行销毁；
+     * 2、每个销毁方法最多等待summer.context.shutdown-timeout毫秒，超时后不再等待，继续销毁它依赖的Bean；
+     * 3、超时和抛出异常的Bean记录在getShutdownReport()中，不会中断关闭过程。
+     */
     @Override
     public void close() {
+        long start = System.currentTimeMillis();
+        Long timeout = propertyResolver.getProperty(SHUTDOWN_TIMEOUT_PROPERTY, Long.class);
+        List<String> timedOutBeans = Collections.synchronizedList(new ArrayList<>());
+        Map<String, Throwable> failedBeans = new ConcurrentHashMap<>();
+
+        // 未被使用过的懒加载Bean没有实例
+        BeanDependencyGraph graph = createDependencyGraph(def -> def.getInstance() != null);
+        List<BeanDefinition> ordered = graph.topologicalOrder();
+        Collections.reverse(ordered);
+
+        // 超时的销毁方法会继续占用线程，使用守护线程以免阻止JVM退出
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "summer-shutdown");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+            for (BeanDefinition def : ordered) {
+                CompletableFuture<?>[] dependents = graph.getDependents(def).stream()
+                        .map(dependent -> futures.get(dependent.getName()))
+                        .toArray(CompletableFuture[]::new);
+                futures.put(def.getName(), CompletableFuture.allOf(dependents)
+                        .thenCompose(v -> CompletableFuture.runAsync(() -> destroyBean(def), executor)
+                                .orTimeout(timeout == null ? DEFAULT_SHUTDOWN_TIMEOUT : timeout, TimeUnit.MILLISECONDS))
+                        .handle((v, e) -> {
+                            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                            if (cause instanceof TimeoutException) {
+                                timedOutBeans.add(def.getName());
+                            } else if (cause != null) {
+                                failedBeans.put(def.getName(), cause);
+                            }
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+        // 销毁对象池中的空闲实例
         for (BeanDefinition def : this.beans.values()) {
-            Object instance = getProxiedInstance(def);
-            callMethod(instance, def.getDestroyMethod(), def.getDestroyMethodName());
+            BeanPool pool = def.getPool();
+            if (pool != null) {
+                pool.drain(bean -> {
+                    try {
+                        callMethod(bean, def.getDestroyMethod(), def.getDestroyMethodName());
+                    } catch (RuntimeException e) {
+                        failedBeans.put(def.getName(), e);
+                    }
+                });
+            }
         }
+        this.shutdownReport = new ShutdownReport(System.currentTimeMillis() - start, timedOutBeans, failedBeans);
 
-        this.beans.clear();
-        ApplicationContextUtils.setApplicationContext(null);
+        this.registry = null;
+        this.beans = new HashMap<>();
+        this.typeIndex = null;
+        ApplicationContextUtils.clearApplicationContext(this);
     }
 }
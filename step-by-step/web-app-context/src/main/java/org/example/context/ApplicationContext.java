@@ -1,6 +1,28 @@
 package org.example.context;
 
+import java.util.List;
+
 public interface ApplicationContext extends AutoCloseable{
 
+    /**
+     * 是否存在指定name的Bean
+     */
+    boolean containsBean(String name);
+
+    /**
+     * 根据name返回唯一Bean，未找到抛出NoSuchBeanDefinitionException
+     */
+    <T> T getBean(String name);
+
+    /**
+     * 根据type返回唯一Bean，未找到抛出NoSuchBeanDefinitionException，找到多个且没有唯一的@Primary时抛出BeanDefinitionException
+     */
+    <T> T getBean(Class<T> requiredType);
+
+    /**
+     * 根据type返回一组Bean，按@Order排序，未找到返回空List
+     */
+    <T> List<T> getBeans(Class<T> requiredType);
+
     void close();
 }
@@ -0,0 +1,12 @@
+package org.example.context;
+
+/**
+ * 需要获取所在容器的Bean（包括BeanPostProcessor）实现该接口，
+ * 容器在Bean实例化之后、调用BeanPostProcessor之前回调setApplicationContext()。
+ *
+ * 这样同一个JVM中的多个容器互不影响，不需要通过ApplicationContextUtils的静态字段获取容器。
+ */
+public interface ApplicationContextAware {
+
+    void setApplicationContext(ApplicationContext applicationContext);
+}
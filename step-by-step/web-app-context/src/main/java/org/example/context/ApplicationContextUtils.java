@@ -1,14 +1,31 @@
 package org.example.context;
 
+/**
+ * 保存最近刷新完成的容器，仅用于只有一个容器的场景。
+ *
+ * 同一个JVM中存在多个容器时，这里只能拿到其中一个，Bean应通过ApplicationContextAware获取所在的容器。
+ */
 public class ApplicationContextUtils {
 
-    public static ApplicationContext applicationContext = null;
+    private static volatile ApplicationContext applicationContext = null;
 
     public static ApplicationContext getApplicationContext() {
         return applicationContext;
     }
 
-    public static void setApplicationContext(ApplicationContext applicationContext) {
+    /**
+     * 由容器在刷新完成时调用，与clearApplicationContext()使用同一把锁
+     */
+    public static synchronized void setApplicationContext(ApplicationContext applicationContext) {
         ApplicationContextUtils.applicationContext = applicationContext;
     }
+
+    /**
+     * 仅当当前保存的是expected时才清除，避免关闭一个容器时清除了另一个容器
+     */
+    public static synchronized void clearApplicationContext(ApplicationContext expected) {
+        if (applicationContext == expected) {
+            applicationContext = null;
+        }
+    }
 }
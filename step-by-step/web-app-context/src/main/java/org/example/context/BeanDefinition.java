@@ -2,12 +2,15 @@ package org.example.context;
 
 import jakarta.annotation.Nullable;
 import org.example.annotation.Configuration;
+import org.example.annotation.Lazy;
+import org.example.annotation.Pooled;
+import org.example.annotation.Scope;
 import org.example.utils.ClassUtils;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 
-public class BeanDefinition {
+public class BeanDefinition implements Comparable<BeanDefinition> {
 
     // 全局唯一的bean名字
     private final String name;
@@ -20,8 +23,11 @@ public class BeanDefinition {
      */
     private final Class<?> beanClass;
 
-    // bean的实例
-    private Object instance = null;
+    // bean的实例，懒加载的Bean可能在任意线程中创建，因此使用volatile
+    private volatile Object instance = null;
+
+    // 懒加载的Bean是否已完成创建、注入和初始化
+    private volatile boolean initialized = false;
 
     /**
      * 构造方法
@@ -32,7 +38,7 @@ public class BeanDefinition {
     private final String factoryName;
 
     // 工厂方法
-    private final Method factoryMethod;
+    private Method factoryMethod;
 
     // bean的顺序
     private final int order;
@@ -40,6 +46,26 @@ public class BeanDefinition {
     // 是否标志@Primary
     private final boolean isPrimary;
 
+    // 是否标志@Lazy
+    private final boolean lazy;
+
+    // 是否为@Scope("prototype")
+    private final boolean prototype;
+
+    // @Pooled的最大实例数，0表示不是池化的Bean
+    private final int poolMax;
+
+    // prototype或@Pooled的Bean的创建计划，第一次获取时生成
+    private volatile PrototypeCreationPlan creationPlan;
+
+    // @Pooled的Bean的对象池，第一次获取时创建
+    private volatile BeanPool pool;
+
+    // 冻结后保存的依赖名称（创建时依赖、字段/set方法注入依赖），未冻结时为null
+    private String[] creationDependencies;
+
+    private String[] injectionDependencies;
+
     /**
      * 我们同时存储了initMethodName和initMethod，以及destroyMethodName和destroyMethod，
      * 这是因为在@Component声明的Bean中，我们可以根据@PostConstruct和@PreDestroy直接拿到Method本身，
@@ -65,13 +91,19 @@ public class BeanDefinition {
      */
     public BeanDefinition(String name, Class<?> beanClass, Constructor<?> constructor, int order, boolean isPrimary
             , String initMethodName, String destroyMethodName, Method initMethod, Method destroyMethod) {
-        this.name = name;
+        this.name = name.intern();
         this.beanClass = beanClass;
         this.constructor = constructor;
         this.order = order;
         this.isPrimary = isPrimary;
         this.factoryMethod = null;
         this.factoryName = null;
+        Lazy lazy = ClassUtils.findAnnotation(beanClass, Lazy.class);
+        this.lazy = lazy != null && lazy.value();
+        Scope scope = ClassUtils.findAnnotation(beanClass, Scope.class);
+        this.prototype = scope != null && Scope.PROTOTYPE.equals(scope.value());
+        Pooled pooled = ClassUtils.findAnnotation(beanClass, Pooled.class);
+        this.poolMax = pooled == null ? 0 : pooled.max();
         constructor.setAccessible(true);
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
@@ -93,13 +125,19 @@ public class BeanDefinition {
      */
     public BeanDefinition(String name, Class<?> beanClass, String factoryName, Method factoryMethod, int order, boolean isPrimary
             , String initMethodName, String destroyMethodName, Method initMethod, Method destroyMethod) {
-        this.name = name;
+        this.name = name.intern();
         this.beanClass = beanClass;
         this.factoryName = factoryName;
         this.factoryMethod = factoryMethod;
         this.order = order;
         this.isPrimary = isPrimary;
         this.constructor = null;
+        Lazy lazy = factoryMethod.getAnnotation(Lazy.class);
+        this.lazy = lazy != null && lazy.value();
+        Scope scope = factoryMethod.getAnnotation(Scope.class);
+        this.prototype = scope != null && Scope.PROTOTYPE.equals(scope.value());
+        Pooled pooled = factoryMethod.getAnnotation(Pooled.class);
+        this.poolMax = pooled == null ? 0 : pooled.max();
         factoryMethod.setAccessible(true);
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
@@ -126,6 +164,78 @@ public class BeanDefinition {
         return isPrimary;
     }
 
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public boolean isPrototype() {
+        return prototype;
+    }
+
+    public boolean isPooled() {
+        return poolMax > 0;
+    }
+
+    public int getPoolMax() {
+        return poolMax;
+    }
+
+    /**
+     * 是否为容器启动时就创建的单例，即非懒加载、非prototype、非池化
+     */
+    public boolean isEagerSingleton() {
+        return !lazy && !prototype && !isPooled();
+    }
+
+    PrototypeCreationPlan getCreationPlan() {
+        return creationPlan;
+    }
+
+    void setCreationPlan(PrototypeCreationPlan creationPlan) {
+        this.creationPlan = creationPlan;
+    }
+
+    /**
+     * 冻结：单例创建、注入和初始化完成后，丢弃只在创建时使用的构造方法、工厂方法和init方法，
+     * 只保留依赖名称（用于按依赖顺序销毁）和destroy方法
+     */
+    void freeze(String[] creationDependencies, String[] injectionDependencies) {
+        this.creationDependencies = creationDependencies;
+        this.injectionDependencies = injectionDependencies;
+        this.constructor = null;
+        this.factoryMethod = null;
+        this.initMethod = null;
+        this.initMethodName = null;
+    }
+
+    boolean isFrozen() {
+        return creationDependencies != null;
+    }
+
+    String[] getCreationDependencies() {
+        return creationDependencies;
+    }
+
+    String[] getInjectionDependencies() {
+        return injectionDependencies;
+    }
+
+    BeanPool getPool() {
+        return pool;
+    }
+
+    void setPool(BeanPool pool) {
+        this.pool = pool;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public void setInitialized(boolean initialized) {
+        this.initialized = initialized;
+    }
+
     public String getName() {
         return name;
     }
@@ -169,4 +279,25 @@ public class BeanDefinition {
     public Method getDestroyMethod() {
         return destroyMethod;
     }
+
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * 先按@Order排序，@Order相同时按名称排序，保证排序结果稳定
+     */
+    @Override
+    public int compareTo(BeanDefinition def) {
+        int cmp = Integer.compare(this.order, def.order);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return this.name.compareTo(def.name);
+    }
+
+    @Override
+    public String toString() {
+        return "BeanDefinition [name=" + name + ", beanClass=" + beanClass.getName() + ", order=" + order + ", primary=" + isPrimary + "]";
+    }
 }
@@ -0,0 +1,229 @@
+package org.example.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 持久化的BeanDefinition缓存。
+ *
+ * 把解析好的BeanDefinition元数据（类名、构造方法、工厂方法、@Order、@Primary、init/destroy方法）
+ * 以紧凑的二进制格式写入文件，并以classpath指纹作为key。下次启动时如果指纹一致，
+ * 直接根据缓存重建BeanDefinition，跳过扫描classpath和解析注解。
+ * 扫描时通过读取class文件判断的注解（例如标注了@Component的自定义注解）可能位于其他jar包中，
+ * 因此同时保存这些注解的类名及其所在位置的指纹，加载时重新计算并比较。
+ *
+ * 文件格式（DataOutputStream）：
+ * MAGIC、VERSION、指纹、注解数量、注解类名、注解指纹、BeanDefinition数量，然后是每个BeanDefinition：
+ * 类型（component/factory）、名称、order、primary、init/destroy方法名、init/destroy方法，
+ * component再写类名和构造方法参数类型，factory再写工厂Bean名称、声明类、方法名和参数类型。
+ */
+final class BeanDefinitionCache {
+
+    private static final int MAGIC = 0x53554D44; // "SUMD"
+
+    private static final int VERSION = 2;
+
+    private static final byte KIND_COMPONENT = 0;
+
+    private static final byte KIND_FACTORY = 1;
+
+    // 基本类型无法通过Class.forName加载
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+            "boolean", boolean.class, "byte", byte.class, "char", char.class, "short", short.class,
+            "int", int.class, "long", long.class, "float", float.class, "double", double.class);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Path file;
+
+    private final String fingerprint;
+
+    // 计算一组资源（注解的class文件）在classpath中所在位置的指纹
+    private final Function<Collection<String>, String> resourceFingerprint;
+
+    BeanDefinitionCache(Path file, String fingerprint, Function<Collection<String>, String> resourceFingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+        this.resourceFingerprint = resourceFingerprint;
+    }
+
+    /**
+     * 读取缓存并重建BeanDefinition，文件不存在、指纹不一致或者类已经变化时返回null
+     *
+     * @param classLoader 根据类名加载类，不初始化
+     */
+    List<BeanDefinition> load(Function<String, Class<?>> classLoader) {
+        if (!Files.isRegularFile(this.file)) {
+            logger.debug("Bean definition cache {} does not exist", this.file);
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.debug("Bean definition cache {} has an unsupported format", this.file);
+                return null;
+            }
+            if (!this.fingerprint.equals(in.readUTF())) {
+                logger.debug("Bean definition cache {} is stale: classpath fingerprint changed", this.file);
+                return null;
+            }
+            List<String> annotations = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i --) {
+                annotations.add(in.readUTF());
+            }
+            if (!in.readUTF().equals(this.resourceFingerprint.apply(annotations))) {
+                logger.debug("Bean definition cache {} is stale: annotation fingerprint changed", this.file);
+                return null;
+            }
+            int count = in.readInt();
+            List<BeanDefinition> defs = new ArrayList<>(count);
+            for (int i = 0; i < count; i ++) {
+                defs.add(readDefinition(in, classLoader));
+            }
+            return defs;
+        } catch (IOException | ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // 缓存损坏或与类不一致，当作未命中，重新扫描
+            logger.debug("Bean definition cache {} cannot be read: {}", this.file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存，先写临时文件再替换，避免并发启动时读到写了一半的文件
+     *
+     * @param annotations 扫描时读取过class文件的注解类名
+     */
+    void write(Collection<BeanDefinition> defs, Collection<String> annotations) {
+        Path tmp = null;
+        try {
+            Path dir = this.file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, this.file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(this.fingerprint);
+                out.writeInt(annotations.size());
+                for (String annotation : annotations) {
+                    out.writeUTF(annotation);
+                }
+                out.writeUTF(this.resourceFingerprint.apply(annotations));
+                out.writeInt(defs.size());
+                for (BeanDefinition def : defs) {
+                    writeDefinition(out, def);
+                }
+            }
+            Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // 缓存只用于加速启动，写入失败不影响容器，但需要记录下来，否则每次启动都会静默地重新扫描
+            logger.warn("Failed to write bean definition cache {}: {}", this.file, e.toString());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    private static void writeDefinition(DataOutputStream out, BeanDefinition def) throws IOException {
+        out.writeByte(def.getFactoryName() == null ? KIND_COMPONENT : KIND_FACTORY);
+        out.writeUTF(def.getName());
+        out.writeInt(def.getOrder());
+        out.writeBoolean(def.isPrimary());
+        writeNullable(out, def.getInitMethodName());
+        writeNullable(out, def.getDestroyMethodName());
+        writeMethod(out, def.getInitMethod());
+        writeMethod(out, def.getDestroyMethod());
+        if (def.getFactoryName() == null) {
+            out.writeUTF(def.getBeanClass().getName());
+            writeTypes(out, def.getConstructor().getParameterTypes());
+        } else {
+            out.writeUTF(def.getFactoryName());
+            Method factoryMethod = def.getFactoryMethod();
+            out.writeUTF(factoryMethod.getDeclaringClass().getName());
+            out.writeUTF(factoryMethod.getName());
+            writeTypes(out, factoryMethod.getParameterTypes());
+        }
+    }
+
+    private static BeanDefinition readDefinition(DataInputStream in, Function<String, Class<?>> classLoader)
+            throws IOException, ReflectiveOperationException {
+        byte kind = in.readByte();
+        String name = in.readUTF();
+        int order = in.readInt();
+        boolean primary = in.readBoolean();
+        String initMethodName = readNullable(in);
+        String destroyMethodName = readNullable(in);
+        Method initMethod = readMethod(in, classLoader);
+        Method destroyMethod = readMethod(in, classLoader);
+        if (kind == KIND_COMPONENT) {
+            Class<?> clazz = classLoader.apply(in.readUTF());
+            Constructor<?> constructor = clazz.getDeclaredConstructor(readTypes(in, classLoader));
+            return new BeanDefinition(name, clazz, constructor, order, primary,
+                    initMethodName, destroyMethodName, initMethod, destroyMethod);
+        }
+        String factoryName = in.readUTF();
+        Class<?> declaringClass = classLoader.apply(in.readUTF());
+        Method factoryMethod = declaringClass.getDeclaredMethod(in.readUTF(), readTypes(in, classLoader));
+        return new BeanDefinition(name, factoryMethod.getReturnType(), factoryName, factoryMethod, order, primary,
+                initMethodName, destroyMethodName, initMethod, destroyMethod);
+    }
+
+    private static void writeMethod(DataOutputStream out, Method method) throws IOException {
+        out.writeBoolean(method != null);
+        if (method != null) {
+            // @PostConstruct/@PreDestroy方法没有参数，只需要声明类和方法名
+            out.writeUTF(method.getDeclaringClass().getName());
+            out.writeUTF(method.getName());
+        }
+    }
+
+    private static Method readMethod(DataInputStream in, Function<String, Class<?>> classLoader)
+            throws IOException, NoSuchMethodException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Class<?> declaringClass = classLoader.apply(in.readUTF());
+        return declaringClass.getDeclaredMethod(in.readUTF());
+    }
+
+    private static void writeTypes(DataOutputStream out, Class<?>[] types) throws IOException {
+        out.writeShort(types.length);
+        for (Class<?> type : types) {
+            out.writeUTF(type.getName());
+        }
+    }
+
+    private static Class<?>[] readTypes(DataInputStream in, Function<String, Class<?>> classLoader) throws IOException {
+        Class<?>[] types = new Class<?>[in.readUnsignedShort()];
+        for (int i = 0; i < types.length; i ++) {
+            String typeName = in.readUTF();
+            Class<?> primitive = PRIMITIVES.get(typeName);
+            types[i] = primitive != null ? primitive : classLoader.apply(typeName);
+        }
+        return types;
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
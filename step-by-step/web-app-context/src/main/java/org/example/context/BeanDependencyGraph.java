@@ -0,0 +1,185 @@
+package org.example.context;
+
+import org.example.exception.BeanCreationException;
+
+import java.util.*;
+
+/**
+ * Bean之间的依赖关系图（有向无环图）。
+ *
+ * 节点为BeanDefinition，边 A -> B 表示A依赖B，即B必须先于A创建。
+ * 拓扑排序时，入度为0的节点按BeanDefinition的自然顺序（@Order、名称）出队，
+ * 因此在没有依赖约束的情况下，结果与串行创建时的顺序一致。
+ *
+ * 通过@Autowired字段、set方法注入产生的边单独记录，字段注入允许循环依赖，成环时可以只去掉环上的这些边。
+ */
+class BeanDependencyGraph {
+
+    // 按插入顺序保存所有节点
+    private final Map<String, BeanDefinition> nodes = new LinkedHashMap<>();
+
+    // bean名称 -> 它所依赖的bean名称
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+
+    // bean名称 -> 依赖它的bean名称
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    // bean名称 -> 仅通过字段、set方法注入依赖的bean名称，是dependencies的子集
+    private final Map<String, Set<String>> injections = new HashMap<>();
+
+    void addNode(BeanDefinition def) {
+        if (nodes.putIfAbsent(def.getName(), def) == null) {
+            dependencies.put(def.getName(), new LinkedHashSet<>());
+            dependents.put(def.getName(), new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * 添加一条边：def依赖dependency。不在图中的节点（例如已经创建好的Bean）会被忽略。
+     */
+    void addDependency(BeanDefinition def, BeanDefinition dependency) {
+        if (!nodes.containsKey(def.getName()) || !nodes.containsKey(dependency.getName())) {
+            return;
+        }
+        if (def.getName().equals(dependency.getName())) {
+            throw new BeanCreationException("创建【" + def.getName() + "】时检测到循环依赖");
+        }
+        dependencies.get(def.getName()).add(dependency.getName());
+        dependents.get(dependency.getName()).add(def.getName());
+        // 同时存在创建时的依赖时，该边不能去掉
+        Set<String> injected = injections.get(def.getName());
+        if (injected != null) {
+            injected.remove(dependency.getName());
+        }
+    }
+
+    /**
+     * 添加一条通过字段、set方法注入产生的边：def注入了dependency。已存在创建时的依赖时保持为创建时的依赖。
+     */
+    void addInjectionDependency(BeanDefinition def, BeanDefinition dependency) {
+        if (!nodes.containsKey(def.getName()) || !nodes.containsKey(dependency.getName())
+                || dependencies.get(def.getName()).contains(dependency.getName())) {
+            return;
+        }
+        addDependency(def, dependency);
+        injections.computeIfAbsent(def.getName(), k -> new HashSet<>()).add(dependency.getName());
+    }
+
+    /**
+     * 去掉处于同一个强连通分量（即同一个环）中的注入边，不在环上的注入边保持不变。
+     * 创建时的依赖不可能成环，因此之后的图一定是无环的。
+     */
+    void removeInjectionCycles() {
+        Map<String, Integer> components = getStronglyConnectedComponents();
+        injections.forEach((name, injected) -> injected.removeIf(dependency -> {
+            if (!components.get(name).equals(components.get(dependency))) {
+                return false;
+            }
+            dependencies.get(name).remove(dependency);
+            dependents.get(dependency).remove(name);
+            return true;
+        }));
+    }
+
+    /**
+     * Tarjan算法求强连通分量，返回bean名称 -> 所在分量的编号，以显式的栈代替递归，避免依赖链过长时栈溢出
+     */
+    Map<String, Integer> getStronglyConnectedComponents() {
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> lowLink = new HashMap<>();
+        Map<String, Integer> components = new HashMap<>();
+        Deque<String> stack = new ArrayDeque<>();
+        Set<String> onStack = new HashSet<>();
+        for (String start : nodes.keySet()) {
+            if (index.containsKey(start)) {
+                continue;
+            }
+            // 每一帧为一个节点及其尚未访问的依赖
+            Deque<Map.Entry<String, Iterator<String>>> frames = new ArrayDeque<>();
+            visit(start, index, lowLink, stack, onStack, frames);
+            while (!frames.isEmpty()) {
+                String v = frames.peek().getKey();
+                Iterator<String> it = frames.peek().getValue();
+                if (it.hasNext()) {
+                    String w = it.next();
+                    if (!index.containsKey(w)) {
+                        visit(w, index, lowLink, stack, onStack, frames);
+                    } else if (onStack.contains(w)) {
+                        lowLink.put(v, Math.min(lowLink.get(v), index.get(w)));
+                    }
+                    continue;
+                }
+                frames.pop();
+                if (!frames.isEmpty()) {
+                    String parent = frames.peek().getKey();
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(v)));
+                }
+                if (lowLink.get(v).equals(index.get(v))) {
+                    // v是分量的根，栈中v及其之上的节点构成一个分量
+                    String w;
+                    do {
+                        w = stack.pop();
+                        onStack.remove(w);
+                        components.put(w, index.get(v));
+                    } while (!w.equals(v));
+                }
+            }
+        }
+        return components;
+    }
+
+    private void visit(String name, Map<String, Integer> index, Map<String, Integer> lowLink, Deque<String> stack,
+                       Set<String> onStack, Deque<Map.Entry<String, Iterator<String>>> frames) {
+        index.put(name, index.size());
+        lowLink.put(name, index.get(name));
+        stack.push(name);
+        onStack.add(name);
+        frames.push(Map.entry(name, dependencies.get(name).iterator()));
+    }
+
+    Collection<BeanDefinition> getNodes() {
+        return nodes.values();
+    }
+
+    List<BeanDefinition> getDependencies(BeanDefinition def) {
+        return dependencies.getOrDefault(def.getName(), Set.of()).stream().map(nodes::get).toList();
+    }
+
+    List<BeanDefinition> getDependents(BeanDefinition def) {
+        return dependents.getOrDefault(def.getName(), Set.of()).stream().map(nodes::get).toList();
+    }
+
+    /**
+     * Kahn算法拓扑排序，依赖在前，被依赖者在后。
+     * 若存在环，抛出BeanCreationException并列出环上的Bean。
+     */
+    List<BeanDefinition> topologicalOrder() {
+        Map<String, Integer> inDegree = new HashMap<>();
+        PriorityQueue<BeanDefinition> ready = new PriorityQueue<>();
+        for (BeanDefinition def : nodes.values()) {
+            int degree = dependencies.get(def.getName()).size();
+            inDegree.put(def.getName(), degree);
+            if (degree == 0) {
+                ready.add(def);
+            }
+        }
+
+        List<BeanDefinition> sorted = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            BeanDefinition def = ready.poll();
+            sorted.add(def);
+            for (String dependent : dependents.get(def.getName())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(nodes.get(dependent));
+                }
+            }
+        }
+
+        if (sorted.size() != nodes.size()) {
+            List<String> cycle = inDegree.entrySet().stream()
+                    .filter(e -> e.getValue() > 0).map(Map.Entry::getKey).sorted().toList();
+            throw new BeanCreationException("检测到循环依赖：" + cycle);
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.context;
+
+import org.example.exception.NoSuchBeanDefinitionException;
+
+import java.util.stream.Stream;
+
+/**
+ * 容器注入的ObjectProvider，查找都经过类型索引（刷新完成后为只读注册表），第一次get()时才解析
+ */
+final class BeanObjectProvider<T> implements ObjectProvider<T> {
+
+    private final AnnotationConfigApplicationContext context;
+
+    private final Class<T> type;
+
+    // @Autowired指定的名称，为空时按类型查找
+    private final String name;
+
+    // 已解析的单例，prototype的Bean不缓存
+    private volatile T target;
+
+    BeanObjectProvider(AnnotationConfigApplicationContext context, Class<T> type, String name) {
+        this.context = context;
+        this.type = type;
+        this.name = name;
+    }
+
+    @Override
+    public T get() {
+        T bean = getIfAvailable();
+        if (bean == null) {
+            throw new NoSuchBeanDefinitionException(this.name.isEmpty()
+                    ? String.format("No bean defined with type '%s'.", this.type.getName())
+                    : String.format("No bean defined with name '%s'.", this.name));
+        }
+        return bean;
+    }
+
+    @Override
+    public T getIfAvailable() {
+        T bean = this.target;
+        if (bean != null) {
+            return bean;
+        }
+        BeanDefinition def = this.name.isEmpty()
+                ? this.context.findBeanDefinition(this.type) : this.context.findBeanDefinition(this.name, this.type);
+        if (def == null) {
+            return null;
+        }
+        bean = this.type.cast(this.context.getProvidedInstance(def, this.type));
+        if (!def.isPrototype()) {
+            this.target = bean;
+        }
+        return bean;
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return this.context.findBeanDefinitions(this.type).stream()
+                .map(def -> this.type.cast(this.context.getProvidedInstance(def, this.type)));
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectProvider<" + this.type.getName() + ">";
+    }
+}
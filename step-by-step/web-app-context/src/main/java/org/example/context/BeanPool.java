@@ -0,0 +1,157 @@
+package org.example.context;
+
+import org.example.exception.BeanCreationException;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @Pooled的Bean的对象池。
+ *
+ * 空闲实例保存在按线程id取模分段的槽位和一个共享的溢出队列中，均为无锁结构：
+ * 1、归还时优先放入当前线程对应的槽位，槽位已被占用时放入溢出队列；
+ * 2、借出时依次尝试当前线程的槽位、溢出队列、其他线程的槽位，都没有空闲实例且未达到max时创建新实例；
+ * 3、借出的实例数由Semaphore限制为max，全部借出时调用方等待。
+ * 同一线程反复借还时总是命中自己的槽位，只与线程id落在同一槽位的线程竞争。
+ * 槽位按线程id（虚拟线程即虚拟线程自身的id）划分，与线程实际运行在哪个平台线程上无关。
+ */
+public class BeanPool {
+
+    private final String beanName;
+
+    private final int max;
+
+    private final Supplier<Object> factory;
+
+    private final AtomicReferenceArray<Object> slots;
+
+    private final Queue<Object> overflow = new ConcurrentLinkedQueue<>();
+
+    private final Semaphore permits;
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder waits = new LongAdder();
+
+    // 注入点类型 -> 代理
+    private final Map<Class<?>, Object> proxies = new ConcurrentHashMap<>();
+
+    BeanPool(String beanName, int max, Supplier<Object> factory) {
+        if (max <= 0) {
+            throw new BeanCreationException("@Pooled的max必须大于0：" + beanName);
+        }
+        this.beanName = beanName;
+        this.max = max;
+        this.factory = factory;
+        this.slots = new AtomicReferenceArray<>(Math.min(max, Runtime.getRuntime().availableProcessors()));
+        this.permits = new Semaphore(max);
+    }
+
+    /**
+     * 借出一个实例，必须通过release()归还
+     */
+    Object borrow() {
+        if (!this.permits.tryAcquire()) {
+            this.waits.increment();
+            this.permits.acquireUninterruptibly();
+        }
+        try {
+            return take();
+        } catch (RuntimeException | Error e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    void release(Object bean) {
+        if (!this.slots.compareAndSet(slotIndex(), null, bean)) {
+            this.overflow.offer(bean);
+        }
+        this.permits.release();
+    }
+
+    private Object take() {
+        int index = slotIndex();
+        while (true) {
+            Object bean = this.slots.getAndSet(index, null);
+            if (bean == null) {
+                bean = this.overflow.poll();
+            }
+            for (int i = 0; bean == null && i < this.slots.length(); i ++) {
+                if (i != index && this.slots.get(i) != null) {
+                    bean = this.slots.getAndSet(i, null);
+                }
+            }
+            if (bean != null) {
+                this.hits.increment();
+                return bean;
+            }
+            int n = this.created.get();
+            if (n < this.max && this.created.compareAndSet(n, n + 1)) {
+                this.misses.increment();
+                try {
+                    return this.factory.get();
+                } catch (RuntimeException | Error e) {
+                    this.created.decrementAndGet();
+                    throw e;
+                }
+            }
+            // 持有许可时一定存在空闲实例或正在归还的实例，重试即可
+            Thread.onSpinWait();
+        }
+    }
+
+    private int slotIndex() {
+        return (int) (Thread.currentThread().threadId() % this.slots.length());
+    }
+
+    Object getProxy(Class<?> type, Function<Class<?>, Object> proxyFactory) {
+        return this.proxies.computeIfAbsent(type, proxyFactory);
+    }
+
+    /**
+     * 取出所有空闲实例交给consumer（例如调用destroy方法），此后不应再借出
+     */
+    void drain(Consumer<Object> consumer) {
+        for (int i = 0; i < this.slots.length(); i ++) {
+            Object bean = this.slots.getAndSet(i, null);
+            if (bean != null) {
+                consumer.accept(bean);
+            }
+        }
+        Object bean;
+        while ((bean = this.overflow.poll()) != null) {
+            consumer.accept(bean);
+        }
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(this.beanName, this.max, this.created.get(), this.max - this.permits.availablePermits(),
+                this.hits.sum(), this.misses.sum(), this.waits.sum());
+    }
+
+    /**
+     * 对象池的统计
+     *
+     * @param created 已创建的实例数
+     * @param borrowed 当前借出的实例数
+     * @param hits 借出空闲实例的次数
+     * @param misses 创建新实例的次数
+     * @param waits 所有实例都被借出而需要等待的次数
+     */
+    public record Metrics(String beanName, int max, int created, int borrowed, long hits, long misses, long waits) {
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.context;
+
+import org.example.exception.BeanDefinitionException;
+
+import java.util.*;
+
+/**
+ * 按类型查找BeanDefinition的索引。
+ *
+ * 构建时把每个Bean的声明类型、所有父类以及所有接口都登记为key，value是排好序的BeanDefinition列表，
+ * 同时预先计算好按类型查找单个Bean时的结果（唯一的Bean或唯一的@Primary），
+ * 这样每个注入点的查找都只是一次HashMap查询，而不需要遍历全部BeanDefinition并排序。
+ */
+class BeanTypeIndex {
+
+    private final Map<Class<?>, List<BeanDefinition>> defsByType = new HashMap<>();
+
+    private final Map<Class<?>, Resolution> resolutions = new HashMap<>();
+
+    BeanTypeIndex(Collection<BeanDefinition> defs) {
+        Map<Class<?>, List<BeanDefinition>> collector = new HashMap<>();
+        for (BeanDefinition def : defs) {
+            for (Class<?> type : getAllTypes(def.getBeanClass())) {
+                collector.computeIfAbsent(type, k -> new ArrayList<>()).add(def);
+            }
+        }
+        collector.forEach((type, list) -> {
+            List<BeanDefinition> sorted = list.stream().sorted().toList();
+            this.defsByType.put(type, sorted);
+            this.resolutions.put(type, resolve(type, sorted));
+        });
+    }
+
+    /**
+     * 返回type类型（包括其子类）的全部BeanDefinition，已按@Order排序
+     */
+    List<BeanDefinition> findBeanDefinitions(Class<?> type) {
+        return this.defsByType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * 返回type类型唯一的BeanDefinition，多于一个时返回唯一的@Primary，不存在时返回null
+     */
+    BeanDefinition findBeanDefinition(Class<?> type) {
+        Resolution resolution = this.resolutions.get(type);
+        if (resolution == null) {
+            return null;
+        }
+        if (resolution.error() != null) {
+            throw new BeanDefinitionException(resolution.error());
+        }
+        return resolution.def();
+    }
+
+    /**
+     * 索引中登记的全部类型
+     */
+    Set<Class<?>> getTypes() {
+        return this.defsByType.keySet();
+    }
+
+    private static Resolution resolve(Class<?> type, List<BeanDefinition> defs) {
+        if (defs.size() == 1) {
+            return new Resolution(defs.get(0), null);
+        }
+        // 多余一个时，查找primary
+        List<BeanDefinition> primaryDefs = defs.stream().filter(BeanDefinition::isPrimary).toList();
+        if (primaryDefs.size() == 1) {
+            return new Resolution(primaryDefs.get(0), null);
+        }
+        if (primaryDefs.isEmpty()) { // 不存在@Primary
+            return new Resolution(null,
+                    String.format("Multiple bean with type '%s' found, but no @Primary specified.", type.getName()));
+        } else { // @Primary不唯一
+            return new Resolution(null,
+                    String.format("Multiple bean with type '%s' found, and multiple @Primary specified.", type.getName()));
+        }
+    }
+
+    /**
+     * 获取clazz本身、所有父类及所有接口（包括父接口）
+     */
+    static Set<Class<?>> getAllTypes(Class<?> clazz) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(clazz);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            if (types.add(type)) {
+                if (type.getSuperclass() != null) {
+                    queue.add(type.getSuperclass());
+                }
+                queue.addAll(Arrays.asList(type.getInterfaces()));
+            }
+        }
+        if (clazz.isInterface()) {
+            types.add(Object.class);
+        }
+        return types;
+    }
+
+    private record Resolution(BeanDefinition def, String error) {
+    }
+}
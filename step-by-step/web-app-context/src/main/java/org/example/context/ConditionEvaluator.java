@@ -0,0 +1,196 @@
+package org.example.context;
+
+import org.example.annotation.ConditionalOnClass;
+import org.example.annotation.ConditionalOnMissingBean;
+import org.example.annotation.ConditionalOnProperty;
+import org.example.annotation.Profile;
+import org.example.io.PropertyResolver;
+import org.example.utils.AnnotationMetadata;
+
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+/**
+ * 在实例化之前判断BeanDefinition的注册条件：@ConditionalOnProperty、@ConditionalOnClass、@Profile、@ConditionalOnMissingBean。
+ *
+ * 条件写在@Component类上时按类判断（包括通过其他注解间接标注），写在@Bean方法上时按方法判断。
+ * @Configuration类不满足条件时，它的@Bean方法定义的Bean也一并移除。
+ */
+class ConditionEvaluator {
+
+    private final PropertyResolver propertyResolver;
+
+    private final ClassLoader classLoader;
+
+    private final Set<String> activeProfiles;
+
+    ConditionEvaluator(PropertyResolver propertyResolver, ClassLoader classLoader, String activeProfilesProperty) {
+        this.propertyResolver = propertyResolver;
+        this.classLoader = classLoader;
+        String profiles = propertyResolver.getProperty(activeProfilesProperty);
+        Set<String> active = new HashSet<>();
+        if (profiles != null) {
+            for (String profile : profiles.split(",")) {
+                if (!profile.isBlank()) {
+                    active.add(profile.trim());
+                }
+            }
+        }
+        this.activeProfiles = active.isEmpty() ? Set.of("default") : Set.copyOf(active);
+    }
+
+    /**
+     * 从defs中移除不满足条件的BeanDefinition，返回被移除的Bean名称
+     */
+    List<String> filter(Map<String, BeanDefinition> defs) {
+        List<String> removed = new ArrayList<>();
+        // 1、@ConditionalOnProperty、@ConditionalOnClass、@Profile
+        for (BeanDefinition def : defs.values().stream().sorted().toList()) {
+            if (!matches(def)) {
+                removed.add(def.getName());
+            }
+        }
+        removed.forEach(defs::remove);
+        // 工厂Bean被移除时，移除它的@Bean方法定义的Bean
+        for (BeanDefinition def : defs.values().stream().sorted().toList()) {
+            if (def.getFactoryName() != null && !defs.containsKey(def.getFactoryName())) {
+                removed.add(def.getName());
+                defs.remove(def.getName());
+            }
+        }
+
+        // 2、@ConditionalOnMissingBean，按@Order依次判断：每个候选只与不是候选的Bean以及之前已保留的候选比较，
+        //    尚未判断的候选不影响之前的候选
+        List<BeanDefinition> candidates = defs.values().stream()
+                .filter(def -> getAnnotation(def, ConditionalOnMissingBean.class) != null).sorted().toList();
+        Set<BeanDefinition> pending = new HashSet<>(candidates);
+        Set<BeanDefinition> rejected = new LinkedHashSet<>();
+        for (BeanDefinition def : candidates) {
+            pending.remove(def);
+            if (existsOtherBean(def, getAnnotation(def, ConditionalOnMissingBean.class), defs.values(), pending, rejected)) {
+                rejected.add(def);
+            }
+        }
+        for (BeanDefinition def : rejected) {
+            defs.remove(def.getName());
+            removed.add(def.getName());
+            // 被移除的候选如果是@Configuration，同样移除其@Bean
+            defs.values().removeIf(it -> {
+                if (def.getName().equals(it.getFactoryName())) {
+                    removed.add(it.getName());
+                    return true;
+                }
+                return false;
+            });
+        }
+        return removed;
+    }
+
+    boolean matches(BeanDefinition def) {
+        ConditionalOnProperty onProperty = getAnnotation(def, ConditionalOnProperty.class);
+        if (onProperty != null && !matches(onProperty)) {
+            return false;
+        }
+        ConditionalOnClass onClass = getAnnotation(def, ConditionalOnClass.class);
+        if (onClass != null && !matches(onClass)) {
+            return false;
+        }
+        Profile profile = getAnnotation(def, Profile.class);
+        return profile == null || matches(profile);
+    }
+
+    boolean matches(ConditionalOnProperty condition) {
+        String value = this.propertyResolver.getProperty(condition.name());
+        if (value == null) {
+            return condition.matchIfMissing();
+        }
+        if (condition.havingValue().isEmpty()) {
+            return !"false".equalsIgnoreCase(value);
+        }
+        return condition.havingValue().equals(value);
+    }
+
+    /**
+     * 通过查找class文件判断类是否存在，不加载类
+     */
+    boolean matches(ConditionalOnClass condition) {
+        for (String className : condition.value()) {
+            if (!classExists(className)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * className可以是二进制名（a.B$C），也可以是规范名（a.B.C）：规范名找不到时，从右向左依次把'.'当作嵌套类的'$'再查找
+     */
+    private boolean classExists(String className) {
+        String path = className.replace('.', '/');
+        while (true) {
+            if (this.classLoader.getResource(path + ".class") != null) {
+                return true;
+            }
+            int n = path.lastIndexOf('/');
+            if (n < 0) {
+                return false;
+            }
+            path = path.substring(0, n) + "$" + path.substring(n + 1);
+        }
+    }
+
+    boolean matches(Profile condition) {
+        for (String profile : condition.value()) {
+            boolean matched = profile.startsWith("!")
+                    ? !this.activeProfiles.contains(profile.substring(1)) : this.activeProfiles.contains(profile);
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否存在condition指定的其他Bean，尚未判断（pending）和已被移除（rejected）的候选，以及被移除的@Configuration中的@Bean不计入
+     */
+    private static boolean existsOtherBean(BeanDefinition def, ConditionalOnMissingBean condition, Collection<BeanDefinition> defs,
+                                           Set<BeanDefinition> pending, Set<BeanDefinition> rejected) {
+        Class<?>[] types = condition.value().length == 0 && condition.name().length == 0
+                ? new Class<?>[] { def.getBeanClass() } : condition.value();
+        for (BeanDefinition other : defs) {
+            if (other == def || pending.contains(other) || rejected.contains(other) || isFactoryRejected(other, rejected)) {
+                continue;
+            }
+            for (String name : condition.name()) {
+                if (name.equals(other.getName())) {
+                    return true;
+                }
+            }
+            for (Class<?> type : types) {
+                if (type.isAssignableFrom(other.getBeanClass())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFactoryRejected(BeanDefinition def, Set<BeanDefinition> rejected) {
+        if (def.getFactoryName() == null) {
+            return false;
+        }
+        for (BeanDefinition factory : rejected) {
+            if (factory.getName().equals(def.getFactoryName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <A extends Annotation> A getAnnotation(BeanDefinition def, Class<A> annoClass) {
+        if (def.getFactoryMethod() != null) {
+            return def.getFactoryMethod().getAnnotation(annoClass);
+        }
+        return AnnotationMetadata.of(def.getBeanClass()).findAnnotation(annoClass);
+    }
+}
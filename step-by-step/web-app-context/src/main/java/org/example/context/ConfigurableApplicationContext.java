@@ -18,4 +18,10 @@ public interface ConfigurableApplicationContext extends ApplicationContext {
     BeanDefinition findBeanDefinition(String name, Class<?> requiredType);
 
     Object createBeanAsEarlySingleton(BeanDefinition def);
+
+    /**
+     * 父容器，没有时返回null
+     */
+    @Nullable
+    ConfigurableApplicationContext getParent();
 }
@@ -0,0 +1,76 @@
+package org.example.context;
+
+import org.example.exception.BeanDefinitionException;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * @Autowired注入点的依赖描述：注入点的类型可以是Bean本身，也可以是包装类型：
+ * ObjectProvider<T>、Supplier<T>（延迟解析），Optional<T>（找不到时为Optional.empty()），
+ * 或者T类型的所有Bean：List<T>、Collection<T>、Set<T>、Map<String, T>（key为Bean名称）、T[]。
+ *
+ * @param kind 注入方式
+ * @param type 要查找的Bean类型，包装类型时为泛型参数T，数组时为元素类型
+ */
+record DependencyDescriptor(Kind kind, Class<?> type) {
+
+    enum Kind {
+        BEAN, PROVIDER, OPTIONAL, LIST, SET, MAP, ARRAY
+    }
+
+    static DependencyDescriptor of(Class<?> rawType, Type genericType) {
+        if (rawType.isArray() && !rawType.getComponentType().isPrimitive()) {
+            return new DependencyDescriptor(Kind.ARRAY, rawType.getComponentType());
+        }
+        Kind kind;
+        int typeArgument = 0;
+        if (rawType == ObjectProvider.class || rawType == Supplier.class) {
+            kind = Kind.PROVIDER;
+        } else if (rawType == Optional.class) {
+            kind = Kind.OPTIONAL;
+        } else if (rawType == List.class || rawType == Collection.class) {
+            kind = Kind.LIST;
+        } else if (rawType == Set.class) {
+            kind = Kind.SET;
+        } else if (rawType == Map.class) {
+            if (getTypeArgument(rawType, genericType, 0) != String.class) {
+                throw new BeanDefinitionException("注入Map时key的类型必须为String：" + genericType.getTypeName());
+            }
+            kind = Kind.MAP;
+            typeArgument = 1;
+        } else {
+            return new DependencyDescriptor(Kind.BEAN, rawType);
+        }
+        return new DependencyDescriptor(kind, getTypeArgument(rawType, genericType, typeArgument));
+    }
+
+    /**
+     * 是否在创建当前Bean时就需要依赖的Bean，ObjectProvider/Supplier不需要，因此不计入依赖图
+     */
+    boolean isEager() {
+        return this.kind != Kind.PROVIDER;
+    }
+
+    /**
+     * 是否注入type类型的所有Bean
+     */
+    boolean isMultiple() {
+        return this.kind == Kind.LIST || this.kind == Kind.SET || this.kind == Kind.MAP || this.kind == Kind.ARRAY;
+    }
+
+    private static Class<?> getTypeArgument(Class<?> rawType, Type genericType, int index) {
+        if (genericType instanceof ParameterizedType pt) {
+            Type arg = pt.getActualTypeArguments()[index];
+            if (arg instanceof Class<?> c) {
+                return c;
+            }
+            if (arg instanceof ParameterizedType p) {
+                return (Class<?>) p.getRawType();
+            }
+        }
+        throw new BeanDefinitionException("注入" + rawType.getSimpleName() + "时必须指定具体的泛型参数：" + genericType.getTypeName());
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.context;
+
+/**
+ * 刷新结束时冻结BeanDefinition元数据的结果。
+ *
+ * 大小只是估算值，不是实际测量的结果：按64位JVM、压缩指针，根据各对象的字段数估计反射对象、字符串、HashMap节点等的大小，
+ * 用于比较冻结前后的差异，不包括冻结前后都存在的SingletonRegistry和Bean实例本身。
+ *
+ * @param beanCount BeanDefinition总数
+ * @param frozenCount 被冻结的BeanDefinition数量
+ * @param estimatedBytesBefore 冻结前元数据的估算大小
+ * @param estimatedBytesAfter 冻结后元数据的估算大小
+ */
+public record FreezeReport(int beanCount, int frozenCount, long estimatedBytesBefore, long estimatedBytesAfter) {
+
+    // 对象头
+    static final int HEADER = 12;
+
+    // 压缩指针
+    static final int REF = 4;
+
+    static final int INT = 4;
+
+    static final int BOOLEAN = 1;
+
+    // BeanDefinition对象本身：14个引用、2个int、4个boolean
+    static final int BEAN_DEFINITION = align(HEADER + 14 * REF + 2 * INT + 4 * BOOLEAN);
+
+    // Method/Constructor对象，不含参数类型数组：约16个引用、3个int、2个boolean
+    static final int REFLECTIVE_MEMBER = align(HEADER + 16 * REF + 3 * INT + 2 * BOOLEAN);
+
+    // HashMap.Node：hash、key、value、next
+    static final int HASH_MAP_NODE = align(HEADER + INT + 3 * REF);
+
+    // HashMap.Node及其在table中的槽位，负载因子0.75时每个元素按2个槽位估计
+    static final int HASH_MAP_ENTRY = HASH_MAP_NODE + 2 * REF;
+
+    // 不可变Map（Map.copyOf）每个元素占用的两个槽位（2倍扩展）
+    static final int COMPACT_MAP_ENTRY = 4 * REF;
+
+    // 不可变List对象本身，不含元素数组
+    static final int IMMUTABLE_LIST = align(HEADER + REF);
+
+    // BeanTypeIndex中按类型预先计算的唯一Bean（Resolution）：BeanDefinition和错误信息两个引用
+    static final int TYPE_RESOLUTION = align(HEADER + 2 * REF);
+
+    // 适配后的MethodHandle链中的一个MethodHandle，LambdaForm由同类型的MethodHandle共享，不计入
+    static final int METHOD_HANDLE = align(HEADER + 4 * REF + 2 * BOOLEAN);
+
+    // 注入点：6个字段的record对象和两层适配的MethodHandle
+    static final int INJECTION_POINT = align(HEADER + 6 * REF) + 2 * METHOD_HANDLE;
+
+    static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    static long sizeOf(String s) {
+        // String对象 + latin1的byte[]
+        return s == null ? 0 : align(HEADER + 12) + align(16 + s.length());
+    }
+
+    static long sizeOfArray(int length) {
+        return length < 0 ? 0 : align(16 + (long) REF * length);
+    }
+
+    static long sizeOfMember(int parameterCount) {
+        return REFLECTIVE_MEMBER + sizeOfArray(parameterCount);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FreezeReport[beanCount=%d, frozenCount=%d, estimated metadata ~%d bytes -> ~%d bytes]",
+                beanCount, frozenCount, estimatedBytesBefore, estimatedBytesAfter);
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.context;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Value;
+import org.example.exception.BeanCreationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 一个类的字段/set方法注入计划。
+ *
+ * 第一次注入某个类时，遍历该类及其父类的getDeclaredFields()/getDeclaredMethods()，
+ * 把所有@Value/@Autowired注入点编译成统一签名(Object, Object)void的MethodHandle，并按类缓存。
+ * 之后再注入同一类型的Bean时，只需依次解析依赖并调用MethodHandle，不再有反射查找和setAccessible。
+ */
+final class InjectionPlan {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<InjectionPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected InjectionPlan computeValue(Class<?> type) {
+            return new InjectionPlan(type);
+        }
+    };
+
+    /**
+     * 由ValueResolver返回，表示跳过该注入点（例如非必须的@Autowired找不到Bean）
+     */
+    static final Object SKIP = new Object();
+
+    private final InjectionPoint[] points;
+
+    private InjectionPlan(Class<?> clazz) {
+        List<InjectionPoint> list = new ArrayList<>();
+        // 与原先的顺序一致：先当前类的字段、方法，再父类
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                InjectionPoint point = createFieldPoint(f);
+                if (point != null) {
+                    list.add(point);
+                }
+            }
+            for (Method m : c.getDeclaredMethods()) {
+                InjectionPoint point = createMethodPoint(m);
+                if (point != null) {
+                    list.add(point);
+                }
+            }
+        }
+        this.points = list.toArray(new InjectionPoint[0]);
+    }
+
+    static InjectionPlan of(Class<?> clazz) {
+        return PLANS.get(clazz);
+    }
+
+    /**
+     * 移除clazz已缓存的计划，之后再次注入该类时重新生成
+     */
+    static void forget(Class<?> clazz) {
+        PLANS.remove(clazz);
+    }
+
+    boolean isEmpty() {
+        return this.points.length == 0;
+    }
+
+    List<InjectionPoint> getPoints() {
+        return List.of(this.points);
+    }
+
+    /**
+     * 按计划向bean注入依赖
+     */
+    void inject(String beanName, Object bean, ValueResolver resolver) {
+        for (InjectionPoint point : this.points) {
+            set(beanName, bean, point, resolver.resolve(point));
+        }
+    }
+
+    /**
+     * 按计划向bean注入依赖，values与getPoints()一一对应，用于已经预先解析好依赖的场景（如prototype的Bean）
+     */
+    void inject(String beanName, Object bean, Supplier<?>[] values) {
+        for (int i = 0; i < this.points.length; i ++) {
+            set(beanName, bean, this.points[i], values[i].get());
+        }
+    }
+
+    private static void set(String beanName, Object bean, InjectionPoint point, Object value) {
+        if (value == SKIP) {
+            return;
+        }
+        try {
+            point.setter().invokeExact(bean, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanCreationException("【" + beanName + "】注入【" + point.name() + "】失败", e);
+        }
+    }
+
+    private static InjectionPoint createFieldPoint(Field field) {
+        Value value = field.getAnnotation(Value.class);
+        Autowired autowired = field.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        if (value != null && autowired != null) {
+            throw new BeanCreationException("注入字段时，字段不能同时被Value和Autowired注解");
+        }
+        field.setAccessible(true);
+        try {
+            MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            return new InjectionPoint(field.getName(), field.getType(), field.getGenericType(), value, autowired, setter.asType(SETTER_TYPE));
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("注入字段【" + field.getName() + "】失败", e);
+        }
+    }
+
+    private static InjectionPoint createMethodPoint(Method method) {
+        Value value = method.getAnnotation(Value.class);
+        Autowired autowired = method.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        if (value != null && autowired != null) {
+            throw new BeanCreationException("注入Method时，Method不能同时被Value和Autowired注解");
+        }
+        if (method.getParameterCount() != 1) {
+            throw new BeanCreationException("注入Method【" + method.getName() + "】时，Method有且只能有一个参数");
+        }
+        method.setAccessible(true);
+        try {
+            MethodHandle setter = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            // 忽略set方法的返回值
+            setter = setter.asType(setter.type().changeReturnType(void.class));
+            return new InjectionPoint(method.getName(), method.getParameterTypes()[0], method.getGenericParameterTypes()[0], value, autowired, setter.asType(SETTER_TYPE));
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("注入Method【" + method.getName() + "】失败", e);
+        }
+    }
+
+    /**
+     * 注入点：字段或只有一个参数的set方法
+     *
+     * @param name 字段名或方法名
+     * @param type 字段类型或方法参数类型
+     * @param genericType 带泛型参数的字段类型或方法参数类型，用于解析ObjectProvider<T>等包装类型
+     * @param value @Value注解，与autowired有且只有一个不为null
+     * @param autowired @Autowired注解
+     * @param setter 签名为(Object, Object)void的MethodHandle
+     */
+    record InjectionPoint(String name, Class<?> type, Type genericType, Value value, Autowired autowired, MethodHandle setter) {
+    }
+
+    @FunctionalInterface
+    interface ValueResolver {
+
+        /**
+         * 返回要注入的值，返回SKIP表示不注入
+         */
+        Object resolve(InjectionPoint point);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.context;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 延迟获取Bean：注入ObjectProvider<T>或Supplier<T>时，容器不会在创建当前Bean时创建T，
+ * 而是在第一次调用get()时才查找并创建，单例的结果会被缓存，prototype的Bean每次get()都是新实例。
+ *
+ * 适合很少用到、但创建代价很高的依赖，不需要代理。
+ */
+public interface ObjectProvider<T> extends Supplier<T> {
+
+    /**
+     * 返回Bean，找不到时抛出NoSuchBeanDefinitionException
+     */
+    @Override
+    T get();
+
+    /**
+     * 返回Bean，找不到时返回null
+     */
+    T getIfAvailable();
+
+    /**
+     * 返回Bean，找不到时返回defaultSupplier提供的对象
+     */
+    default T getIfAvailable(Supplier<T> defaultSupplier) {
+        T bean = getIfAvailable();
+        return bean != null ? bean : defaultSupplier.get();
+    }
+
+    /**
+     * 按@Order顺序返回本容器中所有T类型的Bean
+     */
+    Stream<T> stream();
+}
@@ -0,0 +1,144 @@
+package org.example.context;
+
+import org.example.exception.BeanCreationException;
+import org.example.exception.BeanDefinitionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * prototype的Bean的创建计划。
+ *
+ * 第一次获取时由容器生成并缓存在BeanDefinition中，包括：
+ * 1、签名为(Object[])Object的构造方法/工厂方法MethodHandle，以及已解析好的参数；
+ * 2、字段/set方法注入计划及每个注入点已解析好的值；
+ * 3、BeanPostProcessor链和init方法，@Bean的initMethod按实例的实际类型解析，并缓存最近一次解析的结果。
+ * 之后每次创建只需按计划取参数、调用MethodHandle、写字段，不再解析注解、参数和查找依赖。
+ *
+ * 单例依赖和@Value在生成计划时就解析为常量，只有prototype依赖在每次创建时重新获取。
+ */
+final class PrototypeCreationPlan {
+
+    private static final BeanPostProcessor[] NO_POST_PROCESSORS = new BeanPostProcessor[0];
+
+    private final String beanName;
+
+    // 回调ApplicationContextAware时传入的容器
+    private final ApplicationContext applicationContext;
+
+    private final MethodHandle creator;
+
+    private final Supplier<?>[] arguments;
+
+    private final InjectionPlan injectionPlan;
+
+    private final Supplier<?>[] injectionValues;
+
+    private final BeanPostProcessor[] postProcessors;
+
+    // @PostConstruct方法，签名为(Object)void，没有时为null
+    private final MethodHandle initMethod;
+
+    // @Bean的initMethod名称，没有时为null
+    private final String initMethodName;
+
+    // 最近一次按实例类型解析的initMethod，工厂方法通常总是返回同一类型
+    private volatile ResolvedInitMethod resolvedInitMethod;
+
+    PrototypeCreationPlan(String beanName, ApplicationContext applicationContext, MethodHandle creator, Supplier<?>[] arguments,
+                          InjectionPlan injectionPlan, Supplier<?>[] injectionValues,
+                          BeanPostProcessor[] postProcessors, MethodHandle initMethod, String initMethodName) {
+        this.beanName = beanName;
+        this.applicationContext = applicationContext;
+        this.creator = creator;
+        this.arguments = arguments;
+        this.injectionPlan = injectionPlan;
+        this.injectionValues = injectionValues;
+        this.postProcessors = postProcessors.length == 0 ? NO_POST_PROCESSORS : postProcessors;
+        this.initMethod = initMethod;
+        this.initMethodName = initMethodName;
+    }
+
+    /**
+     * 创建一个新实例：构造、ApplicationContextAware、BeanPostProcessor、注入、init，与单例的创建顺序一致
+     */
+    Object create() {
+        Object[] args = new Object[this.arguments.length];
+        for (int i = 0; i < args.length; i ++) {
+            args[i] = this.arguments[i].get();
+        }
+        Object instance;
+        try {
+            instance = (Object) this.creator.invokeExact(args);
+        } catch (Throwable e) {
+            throw new BeanCreationException(String.format("创建Bean实例出错，Bean为 '%s'", this.beanName), e);
+        }
+        if (instance instanceof ApplicationContextAware aware) {
+            aware.setApplicationContext(this.applicationContext);
+        }
+
+        // 调用BeanPostProcessor处理，注入时使用替换前的原始实例
+        Object processed = instance;
+        for (BeanPostProcessor postProcessor : this.postProcessors) {
+            processed = postProcessor.postProcessBeforeInitialization(processed, this.beanName);
+            if (processed == null) {
+                throw new BeanCreationException("postProcessor在Bean实例化前处理【" + this.beanName + "】出现空异常");
+            }
+        }
+        Object target = processed;
+        for (int i = this.postProcessors.length - 1; i >= 0; i --) {
+            target = this.postProcessors[i].postProcessOnSetProperty(target, this.beanName);
+        }
+
+        if (!this.injectionPlan.isEmpty()) {
+            this.injectionPlan.inject(this.beanName, target, this.injectionValues);
+        }
+
+        MethodHandle init = this.initMethod != null ? this.initMethod
+                : this.initMethodName != null ? resolveInitMethod(processed.getClass()) : null;
+        if (init != null) {
+            try {
+                init.invokeExact(processed);
+            } catch (Throwable e) {
+                throw new BeanCreationException(String.format("调用Bean '%s' 的init方法出错", this.beanName), e);
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * 与单例的callMethod()一致，在实例的实际类型（@Bean方法可能返回声明类型的子类，或被BeanPostProcessor替换为代理）上查找public的initMethod
+     */
+    private MethodHandle resolveInitMethod(Class<?> type) {
+        ResolvedInitMethod resolved = this.resolvedInitMethod;
+        if (resolved == null || resolved.type() != type) {
+            try {
+                resolved = new ResolvedInitMethod(type, unreflectInitMethod(this.beanName, type.getMethod(this.initMethodName)));
+            } catch (NoSuchMethodException e) {
+                throw new BeanDefinitionException("没有该方法【" + this.initMethodName + "】");
+            }
+            this.resolvedInitMethod = resolved;
+        }
+        return resolved.handle();
+    }
+
+    /**
+     * 把init方法转换为签名为(Object)void的MethodHandle
+     */
+    static MethodHandle unreflectInitMethod(String beanName, Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            return handle.asType(handle.type().changeReturnType(void.class))
+                    .asType(MethodType.methodType(void.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException(String.format("创建Bean '%s' 的创建计划出错", beanName), e);
+        }
+    }
+
+    private record ResolvedInitMethod(Class<?> type, MethodHandle handle) {
+    }
+}
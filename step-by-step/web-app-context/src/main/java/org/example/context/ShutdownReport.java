@@ -0,0 +1,53 @@
+package org.example.context;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 容器关闭的结果：总耗时、销毁方法超时的Bean，以及销毁方法抛出异常的Bean。
+ *
+ * 超时的Bean不会阻塞其他Bean的销毁，它的销毁方法仍在后台（守护线程）继续执行。
+ */
+public class ShutdownReport {
+
+    private final long durationMillis;
+
+    private final List<String> timedOutBeans;
+
+    private final Map<String, Throwable> failedBeans;
+
+    ShutdownReport(long durationMillis, List<String> timedOutBeans, Map<String, Throwable> failedBeans) {
+        this.durationMillis = durationMillis;
+        this.timedOutBeans = List.copyOf(timedOutBeans);
+        this.failedBeans = Collections.unmodifiableMap(failedBeans);
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * 销毁方法超过summer.context.shutdown-timeout仍未结束的Bean名称，按超时先后排列
+     */
+    public List<String> getTimedOutBeans() {
+        return timedOutBeans;
+    }
+
+    /**
+     * Bean名称 -> 销毁方法抛出的异常
+     */
+    public Map<String, Throwable> getFailedBeans() {
+        return failedBeans;
+    }
+
+    public boolean isClean() {
+        return timedOutBeans.isEmpty() && failedBeans.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ShutdownReport [durationMillis=" + durationMillis + ", timedOutBeans=" + timedOutBeans
+                + ", failedBeans=" + failedBeans.keySet() + "]";
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.context;
+
+import org.example.exception.BeanDefinitionException;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 容器刷新完成后冻结的只读Bean注册表。
+ *
+ * 名称和类型分别使用开放寻址（线性探测）的数组保存，构建完成后不再修改，
+ * 所有字段都是final的，通过volatile引用发布后可以被任意线程无锁读取。
+ */
+final class SingletonRegistry {
+
+    // 按名称查找
+    private final String[] names;
+    private final BeanDefinition[] defsByName;
+    private final int nameMask;
+
+    // 按类型查找
+    private final Class<?>[] types;
+    // 按类型查找唯一Bean的结果，类型存在多个Bean且无法确定@Primary时为null
+    private final BeanDefinition[] primaryDefs;
+    // 无法确定唯一Bean时的错误信息
+    private final String[] errors;
+    // 该类型的全部Bean，已按@Order排序的不可变列表，每次查找直接返回，不再复制
+    private final List<BeanDefinition>[] defsByType;
+    private final int typeMask;
+
+    @SuppressWarnings("unchecked")
+    SingletonRegistry(Collection<BeanDefinition> defs, BeanTypeIndex typeIndex) {
+        int nameCapacity = tableSize(defs.size());
+        this.names = new String[nameCapacity];
+        this.defsByName = new BeanDefinition[nameCapacity];
+        this.nameMask = nameCapacity - 1;
+        for (BeanDefinition def : defs) {
+            int i = spread(def.getName().hashCode()) & nameMask;
+            while (names[i] != null) {
+                i = (i + 1) & nameMask;
+            }
+            names[i] = def.getName();
+            defsByName[i] = def;
+        }
+
+        int typeCapacity = tableSize(typeIndex.getTypes().size());
+        this.types = new Class<?>[typeCapacity];
+        this.primaryDefs = new BeanDefinition[typeCapacity];
+        this.errors = new String[typeCapacity];
+        this.defsByType = (List<BeanDefinition>[]) new List<?>[typeCapacity];
+        this.typeMask = typeCapacity - 1;
+        for (Class<?> type : typeIndex.getTypes()) {
+            int i = spread(System.identityHashCode(type)) & typeMask;
+            while (types[i] != null) {
+                i = (i + 1) & typeMask;
+            }
+            types[i] = type;
+            defsByType[i] = List.copyOf(typeIndex.findBeanDefinitions(type));
+            try {
+                primaryDefs[i] = typeIndex.findBeanDefinition(type);
+            } catch (BeanDefinitionException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+    }
+
+    BeanDefinition findByName(String name) {
+        int i = spread(name.hashCode()) & nameMask;
+        String key;
+        while ((key = names[i]) != null) {
+            if (key.equals(name)) {
+                return defsByName[i];
+            }
+            i = (i + 1) & nameMask;
+        }
+        return null;
+    }
+
+    /**
+     * 按类型查找唯一的Bean，不存在时返回null，无法确定唯一Bean时抛出BeanDefinitionException
+     */
+    BeanDefinition findByType(Class<?> type) {
+        int i = indexOfType(type);
+        if (i < 0) {
+            return null;
+        }
+        if (errors[i] != null) {
+            throw new BeanDefinitionException(errors[i]);
+        }
+        return primaryDefs[i];
+    }
+
+    /**
+     * 按类型查找全部Bean，返回构建时生成的不可变列表
+     */
+    List<BeanDefinition> findAllByType(Class<?> type) {
+        int i = indexOfType(type);
+        return i < 0 ? List.of() : defsByType[i];
+    }
+
+    private int indexOfType(Class<?> type) {
+        int i = spread(System.identityHashCode(type)) & typeMask;
+        Class<?> key;
+        while ((key = types[i]) != null) {
+            if (key == type) {
+                return i;
+            }
+            i = (i + 1) & typeMask;
+        }
+        return -1;
+    }
+
+    /**
+     * 容量为2的幂，且至少为元素数量的2倍，保证负载因子不超过0.5
+     */
+    private static int tableSize(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+        return Math.max(capacity, 2);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
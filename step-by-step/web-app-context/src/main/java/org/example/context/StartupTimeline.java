@@ -0,0 +1,328 @@
+package org.example.context;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录容器刷新过程的时间线：
+ * 1、每个阶段（扫描、创建BeanDefinition、创建@Configuration、创建BeanPostProcessor、创建普通Bean、注入、初始化）的起止时间；
+ * 2、每个Bean在构造方法/工厂方法、BeanPostProcessor、代理生成、注入和init方法上花费的时间，以及它创建时依赖的Bean。
+ *
+ * 可以通过API查询最慢的N个Bean和创建Bean的关键路径，通过toJson()导出，
+ * 同时每个阶段和每个Bean的每一步都会提交JFR事件（summer.RefreshPhase、summer.BeanStep），可以在JDK Mission Control中查看：
+ * 开始时调用event.begin()，结束时调用commit()，事件自带的开始时间和持续时间就是该阶段或步骤的耗时。
+ * 未开启JFR时不创建事件，避免第一次加载事件类时的开销。
+ */
+public class StartupTimeline {
+
+    /**
+     * 刷新阶段
+     */
+    public enum Phase {
+        SCAN, DEFINITION, CONFIGURATION, BEAN_POST_PROCESSOR, INSTANTIATION, INJECTION, INIT
+    }
+
+    /**
+     * 单个Bean的步骤
+     */
+    public enum BeanStep {
+        CONSTRUCT, POST_PROCESS, PROXY, INJECT, INIT
+    }
+
+    private final long startNanos = System.nanoTime();
+
+    private final List<PhaseTiming> phases = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<String, BeanTiming> beans = new ConcurrentHashMap<>();
+
+    /**
+     * 开始一个阶段，结束时调用phase()
+     */
+    public Span beginPhase() {
+        return new Span(System.nanoTime(), FlightRecorder.isInitialized() ? new RefreshPhaseEvent() : null);
+    }
+
+    /**
+     * 开始某个Bean的一步，结束时调用bean()
+     */
+    public Span beginBean() {
+        return new Span(System.nanoTime(), FlightRecorder.isInitialized() ? new BeanStepEvent() : null);
+    }
+
+    /**
+     * 记录从span开始到现在的阶段耗时
+     */
+    public void phase(Phase phase, Span span) {
+        long duration = System.nanoTime() - span.start;
+        this.phases.add(new PhaseTiming(phase, span.start - this.startNanos, duration));
+        if (span.event instanceof RefreshPhaseEvent event && event.shouldCommit()) {
+            event.phase = phase.name();
+            event.commit();
+        }
+    }
+
+    /**
+     * 记录从span开始到现在的某个Bean某一步的耗时
+     */
+    public void bean(String beanName, BeanStep step, Span span) {
+        long duration = System.nanoTime() - span.start;
+        getBeanTiming(beanName).add(step, duration);
+        if (span.event instanceof BeanStepEvent event && event.shouldCommit()) {
+            event.beanName = beanName;
+            event.step = step.name();
+            event.commit();
+        }
+    }
+
+    /**
+     * 记录Bean创建时（构造方法或工厂方法参数）依赖的Bean，用于计算关键路径
+     */
+    public void dependencies(String beanName, Collection<String> dependencies) {
+        getBeanTiming(beanName).dependencies.addAll(dependencies);
+    }
+
+    public List<PhaseTiming> getPhases() {
+        synchronized (this.phases) {
+            return List.copyOf(this.phases);
+        }
+    }
+
+    public Map<String, BeanTiming> getBeanTimings() {
+        return Collections.unmodifiableMap(this.beans);
+    }
+
+    /**
+     * 返回总耗时最长的n个Bean
+     */
+    public List<BeanTiming> getSlowestBeans(int n) {
+        return this.beans.values().stream()
+                .sorted(Comparator.comparingLong(BeanTiming::getTotalNanos).reversed()).limit(n).toList();
+    }
+
+    /**
+     * 返回创建Bean的关键路径：沿着创建依赖，累计耗时（构造、BeanPostProcessor、代理）最长的一条链，
+     * 第一个元素是最先创建的Bean。即使Bean并行创建，整个创建阶段也不可能快于这条链。
+     */
+    public List<BeanTiming> getCriticalPath() {
+        Map<String, Long> cost = new HashMap<>();
+        Map<String, String> next = new HashMap<>();
+        String head = null;
+        long max = -1;
+        for (String name : this.beans.keySet()) {
+            long c = pathCost(name, cost, next, new HashSet<>());
+            if (c > max) {
+                max = c;
+                head = name;
+            }
+        }
+        LinkedList<BeanTiming> path = new LinkedList<>();
+        for (String name = head; name != null; name = next.get(name)) {
+            path.addFirst(this.beans.get(name));
+        }
+        return path;
+    }
+
+    private long pathCost(String name, Map<String, Long> cost, Map<String, String> next, Set<String> visiting) {
+        Long cached = cost.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        BeanTiming timing = this.beans.get(name);
+        if (timing == null || !visiting.add(name)) {
+            return 0;
+        }
+        long best = 0;
+        for (String dependency : timing.dependencies) {
+            long c = pathCost(dependency, cost, next, visiting);
+            if (this.beans.containsKey(dependency) && c >= best) {
+                best = c;
+                next.put(name, dependency);
+            }
+        }
+        long total = best + timing.getCreationNanos();
+        cost.put(name, total);
+        return total;
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"phases\":[");
+        List<PhaseTiming> phaseList = getPhases();
+        for (int i = 0; i < phaseList.size(); i ++) {
+            PhaseTiming p = phaseList.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"phase\":\"").append(p.phase()).append("\",\"startNanos\":").append(p.startNanos())
+                    .append(",\"durationNanos\":").append(p.durationNanos()).append('}');
+        }
+        sb.append("],\"beans\":[");
+        boolean first = true;
+        for (BeanTiming b : getSlowestBeans(Integer.MAX_VALUE)) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            appendBean(sb, b);
+        }
+        sb.append("],\"criticalPath\":[");
+        first = true;
+        for (BeanTiming b : getCriticalPath()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            appendString(sb, b.getBeanName());
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    private void appendBean(StringBuilder sb, BeanTiming b) {
+        sb.append("{\"name\":");
+        appendString(sb, b.getBeanName());
+        for (BeanStep step : BeanStep.values()) {
+            sb.append(",\"").append(step.name().toLowerCase()).append("Nanos\":").append(b.getNanos(step));
+        }
+        sb.append(",\"totalNanos\":").append(b.getTotalNanos()).append(",\"dependencies\":[");
+        boolean first = true;
+        for (String dependency : b.getDependencies()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            appendString(sb, dependency);
+        }
+        sb.append("]}");
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i ++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private BeanTiming getBeanTiming(String beanName) {
+        return this.beans.computeIfAbsent(beanName, BeanTiming::new);
+    }
+
+    /**
+     * 一个正在进行的阶段或步骤：开始时间，以及已经调用begin()的JFR事件，未开启JFR时为null
+     */
+    public static final class Span {
+
+        private final long start;
+
+        private final Event event;
+
+        private Span(long start, Event event) {
+            this.start = start;
+            this.event = event;
+            if (event != null) {
+                event.begin();
+            }
+        }
+    }
+
+    /**
+     * 阶段耗时，startNanos为相对于时间线创建时的偏移
+     */
+    public record PhaseTiming(Phase phase, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * 单个Bean各步骤的耗时
+     */
+    public static class BeanTiming {
+
+        private final String beanName;
+
+        private final long[] nanos = new long[BeanStep.values().length];
+
+        private final Set<String> dependencies = ConcurrentHashMap.newKeySet();
+
+        BeanTiming(String beanName) {
+            this.beanName = beanName;
+        }
+
+        synchronized void add(BeanStep step, long duration) {
+            this.nanos[step.ordinal()] += duration;
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public synchronized long getNanos(BeanStep step) {
+            return this.nanos[step.ordinal()];
+        }
+
+        /**
+         * 创建耗时：构造、BeanPostProcessor和代理生成
+         */
+        public synchronized long getCreationNanos() {
+            return this.nanos[BeanStep.CONSTRUCT.ordinal()] + this.nanos[BeanStep.POST_PROCESS.ordinal()]
+                    + this.nanos[BeanStep.PROXY.ordinal()];
+        }
+
+        public synchronized long getTotalNanos() {
+            long total = 0;
+            for (long n : this.nanos) {
+                total += n;
+            }
+            return total;
+        }
+
+        public Set<String> getDependencies() {
+            return Collections.unmodifiableSet(this.dependencies);
+        }
+
+        @Override
+        public String toString() {
+            return "BeanTiming [name=" + beanName + ", totalNanos=" + getTotalNanos() + "]";
+        }
+    }
+
+    @Name("summer.RefreshPhase")
+    @Label("Refresh Phase")
+    @Category("Summer")
+    @Description("A phase of AnnotationConfigApplicationContext refresh")
+    static class RefreshPhaseEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("summer.BeanStep")
+    @Label("Bean Step")
+    @Category("Summer")
+    @Description("A step of creating a single bean")
+    static class BeanStepEvent extends Event {
+
+        @Label("Bean Name")
+        String beanName;
+
+        @Label("Step")
+        String step;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.exception;
+
+public class NoSuchBeanDefinitionException extends BeansException {
+
+    public NoSuchBeanDefinitionException() {
+    }
+
+    public NoSuchBeanDefinitionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.index;
+
+import org.example.exception.BeanDefinitionException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 编译期生成的组件索引，位于classpath的META-INF/summer.components。
+ *
+ * 由ComponentIndexProcessor在编译时写入，每个jar包（或classes目录）各有一份。
+ * 启动时有索引的classpath根直接从索引中读取@Component类以及@Configuration中的@Bean方法，
+ * 不再扫描，也不需要为了判断是否有@Component而加载每一个class；没有索引的classpath根仍然扫描。
+ *
+ * 文件格式为每行一条记录，字段以|分隔，#开头的行为注释，parameterTypes为@Bean方法以,分隔的参数类型（Class.getName()）：
+ * <code>
+ * kind|className|methodName|beanName|order|primary|parameterTypes
+ * component|org.example.Hello||hello|2147483647|false|
+ * configuration|org.example.AppConfig||appConfig|2147483647|false|
+ * bean|org.example.AppConfig|createDataSource|dataSource|2147483647|true|java.lang.String,int
+ * </code>
+ */
+public class ComponentIndex {
+
+    public static final String LOCATION = "META-INF/summer.components";
+
+    public static final String KIND_COMPONENT = "component";
+
+    public static final String KIND_CONFIGURATION = "configuration";
+
+    public static final String KIND_BEAN = "bean";
+
+    // className -> @Component/@Configuration记录
+    private final Map<String, Entry> components = new LinkedHashMap<>();
+
+    // className -> 该类中的@Bean方法记录
+    private final Map<String, List<Entry>> factoryMethods = new HashMap<>();
+
+    // 存在索引文件的classpath根：目录时为classpath根目录，jar包时为jar文件
+    private final Set<Path> roots;
+
+    public ComponentIndex(Collection<Entry> entries) {
+        this(entries, Set.of());
+    }
+
+    public ComponentIndex(Collection<Entry> entries, Set<Path> roots) {
+        this.roots = Set.copyOf(roots);
+        for (Entry entry : entries) {
+            if (KIND_BEAN.equals(entry.kind())) {
+                this.factoryMethods.computeIfAbsent(entry.className(), k -> new ArrayList<>()).add(entry);
+            } else {
+                this.components.put(entry.className(), entry);
+            }
+        }
+    }
+
+    /**
+     * 读取classLoader可见的全部索引文件，一个都不存在时返回null
+     */
+    public static ComponentIndex load(ClassLoader classLoader) {
+        List<Entry> entries = new ArrayList<>();
+        Set<Path> roots = new HashSet<>();
+        boolean found = false;
+        try {
+            Enumeration<URL> urls = classLoader.getResources(LOCATION);
+            while (urls.hasMoreElements()) {
+                found = true;
+                URL url = urls.nextElement();
+                try (InputStream input = url.openStream()) {
+                    entries.addAll(read(input));
+                }
+                Path root = toRoot(url);
+                if (root != null) {
+                    roots.add(root);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return found ? new ComponentIndex(entries, roots) : null;
+    }
+
+    /**
+     * 返回索引文件所在的classpath根，无法识别的URL（既不是目录也不是jar包）返回null，该根会继续被扫描
+     */
+    static Path toRoot(URL url) {
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                String ssp = uri.getRawSchemeSpecificPart();
+                return Paths.get(URI.create(ssp.substring(0, ssp.indexOf("!/")))).toAbsolutePath().normalize();
+            }
+            // 从META-INF/summer.components回到classpath根目录
+            return Paths.get(uri).getParent().getParent().toAbsolutePath().normalize();
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
+    public static List<Entry> read(InputStream input) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\|", -1);
+            if (fields.length != 7) {
+                throw new BeanDefinitionException("Invalid line in " + LOCATION + ": " + line);
+            }
+            boolean method = !fields[2].isEmpty();
+            entries.add(new Entry(fields[0], fields[1], method ? fields[2] : null, fields[3],
+                    Integer.parseInt(fields[4]), Boolean.parseBoolean(fields[5]), method ? fields[6] : null));
+        }
+        return entries;
+    }
+
+    /**
+     * 返回包名为packageName或其子包下的全部组件类名
+     */
+    public List<String> getComponentClassNames(String packageName) {
+        String prefix = packageName + ".";
+        return this.components.keySet().stream().filter(name -> name.startsWith(prefix)).toList();
+    }
+
+    public Entry getComponent(String className) {
+        return this.components.get(className);
+    }
+
+    public List<Entry> getFactoryMethods(String className) {
+        return this.factoryMethods.getOrDefault(className, List.of());
+    }
+
+    /**
+     * root（classpath根目录或jar文件）中是否有索引，有索引时不需要再扫描该根
+     */
+    public boolean covers(Path root) {
+        return this.roots.contains(root.toAbsolutePath().normalize());
+    }
+
+    /**
+     * 返回方法名和参数类型组成的签名，例如createDataSource(java.lang.String,int)，用于区分重载的@Bean方法
+     */
+    public static String signature(Method method) {
+        return method.getName() + '(' + Arrays.stream(method.getParameterTypes()).map(Class::getName).collect(Collectors.joining(",")) + ')';
+    }
+
+    /**
+     * 一条索引记录。对于@Component和@Configuration，methodName和parameterTypes为null；
+     * 对于@Bean，className为@Configuration类名，parameterTypes为以,分隔的参数类型，没有参数时为空字符串。
+     */
+    public record Entry(String kind, String className, String methodName, String beanName, int order, boolean primary,
+                        String parameterTypes) {
+
+        /**
+         * @Bean方法的签名，与signature(Method)一致
+         */
+        public String methodSignature() {
+            return methodName + '(' + parameterTypes + ')';
+        }
+
+        public String format() {
+            return String.join("|", kind, className, methodName == null ? "" : methodName, beanName,
+                    String.valueOf(order), String.valueOf(primary), parameterTypes == null ? "" : parameterTypes);
+        }
+    }
+}
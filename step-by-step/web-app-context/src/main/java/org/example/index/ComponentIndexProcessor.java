@@ -0,0 +1,283 @@
+package org.example.index;
+
+import org.example.annotation.Bean;
+import org.example.annotation.Component;
+import org.example.annotation.Configuration;
+import org.example.annotation.Order;
+import org.example.annotation.Primary;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 编译期注解处理器，把被@Component（包括@Configuration等标注了@Component的注解）标注的类，
+ * 以及@Configuration中的@Bean方法写入META-INF/summer.components。
+ *
+ * 依赖本模块的工程在编译时会通过META-INF/services/javax.annotation.processing.Processor自动发现该处理器，
+ * 生成的索引与class文件一起打包，启动时AnnotationConfigApplicationContext读取索引而不再扫描classpath。
+ *
+ * 增量编译时只有重新编译的类会被处理，因此写入前先读取输出目录中已有的索引，
+ * 只替换本次编译的类的记录，已被删除的类的记录一并去除。
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    // 按类名排序，保证生成的索引文件内容稳定
+    private final Map<String, List<ComponentIndex.Entry>> entries = new TreeMap<>();
+
+    // 本次编译处理过的全部类（包括不是组件的类），已有索引中这些类的记录以本次编译的结果为准
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        } else {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                processType(type);
+            }
+        }
+        // 不认领任何注解，其他处理器仍可处理
+        return false;
+    }
+
+    void processType(TypeElement type) {
+        // 与运行时一致，嵌套类也可以是Bean
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            processType(nested);
+        }
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        this.processedTypes.add(className);
+        if (type.getKind() != ElementKind.CLASS || findAnnotation(type, Component.class.getName(), new HashSet<>()) == null) {
+            return;
+        }
+        boolean configuration = findAnnotation(type, Configuration.class.getName(), new HashSet<>()) != null;
+        List<ComponentIndex.Entry> list = new ArrayList<>();
+        list.add(new ComponentIndex.Entry(
+                configuration ? ComponentIndex.KIND_CONFIGURATION : ComponentIndex.KIND_COMPONENT,
+                className, null, getBeanName(type), getOrder(findAnnotation(type, Order.class.getName(), new HashSet<>())),
+                getDirectAnnotation(type, Primary.class.getName()) != null, null));
+        if (configuration) {
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                AnnotationMirror bean = getDirectAnnotation(method, Bean.class.getName());
+                if (bean != null) {
+                    String beanName = (String) getValue(bean, "value");
+                    list.add(new ComponentIndex.Entry(ComponentIndex.KIND_BEAN, className, method.getSimpleName().toString(),
+                            beanName.isEmpty() ? method.getSimpleName().toString() : beanName,
+                            getOrder(getDirectAnnotation(method, Order.class.getName())),
+                            getDirectAnnotation(method, Primary.class.getName()) != null,
+                            method.getParameters().stream().map(param -> getClassName(param.asType()))
+                                    .collect(Collectors.joining(","))));
+                }
+            }
+        }
+        this.entries.put(className, list);
+    }
+
+    void writeIndex() {
+        Map<String, List<ComponentIndex.Entry>> merged = readExistingIndex();
+        if (this.entries.isEmpty() && merged == null) {
+            return;
+        }
+        if (merged == null) {
+            merged = this.entries;
+        } else {
+            merged.putAll(this.entries);
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# kind|className|methodName|beanName|order|primary|parameterTypes\n");
+                for (List<ComponentIndex.Entry> list : merged.values()) {
+                    for (ComponentIndex.Entry entry : list) {
+                        writer.write(entry.format());
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + ComponentIndex.LOCATION + ": " + e);
+        }
+    }
+
+    /**
+     * 读取输出目录中上一次编译生成的索引，去除本次重新编译的类和已不存在的类的记录，按类名分组。
+     * 没有已有的索引（例如全量编译）时返回null。
+     */
+    Map<String, List<ComponentIndex.Entry>> readExistingIndex() {
+        List<ComponentIndex.Entry> previous;
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.LOCATION);
+            try (InputStream input = file.openInputStream()) {
+                previous = ComponentIndex.read(input);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 文件不存在或无法解析时，只写入本次编译的结果
+            return null;
+        }
+        Map<String, List<ComponentIndex.Entry>> existing = new TreeMap<>();
+        for (ComponentIndex.Entry entry : previous) {
+            if (!this.processedTypes.contains(entry.className()) && typeExists(entry.className())) {
+                existing.computeIfAbsent(entry.className(), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * binaryName对应的类型是否存在。类名本身也可以包含$，不能直接把$替换为.，
+     * 因此依次尝试以每个$之前的部分作为顶层类，再沿着嵌套关系逐层匹配二进制名称
+     */
+    boolean typeExists(String binaryName) {
+        Elements elements = processingEnv.getElementUtils();
+        int end = binaryName.indexOf('$');
+        while (true) {
+            TypeElement topLevel = elements.getTypeElement(end < 0 ? binaryName : binaryName.substring(0, end));
+            if (topLevel != null && topLevel.getNestingKind() == NestingKind.TOP_LEVEL
+                    && findNestedType(topLevel, binaryName) != null) {
+                return true;
+            }
+            if (end < 0) {
+                return false;
+            }
+            end = binaryName.indexOf('$', end + 1);
+        }
+    }
+
+    private TypeElement findNestedType(TypeElement type, String binaryName) {
+        String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (name.equals(binaryName)) {
+            return type;
+        }
+        if (!binaryName.startsWith(name + '$')) {
+            return null;
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            TypeElement found = findNestedType(nested, binaryName);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回类型擦除后与Class.getName()一致的名称，例如int、java.lang.String、[Ljava.lang.String;、org.example.Outer$Inner
+     */
+    String getClassName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return getDescriptor(erased);
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) erased).asElement()).toString();
+        }
+        return erased.toString();
+    }
+
+    private String getDescriptor(TypeMirror type) {
+        return switch (type.getKind()) {
+            case ARRAY -> "[" + getDescriptor(((ArrayType) type).getComponentType());
+            case BOOLEAN -> "Z";
+            case BYTE -> "B";
+            case CHAR -> "C";
+            case SHORT -> "S";
+            case INT -> "I";
+            case LONG -> "J";
+            case FLOAT -> "F";
+            case DOUBLE -> "D";
+            default -> "L" + getClassName(type) + ";";
+        };
+    }
+
+    /**
+     * 与ClassUtils.getBeanName(Class)的规则一致：优先取@Component的value，其次取标注了@Component的注解的value，
+     * 都为空时使用首字母小写的类名
+     */
+    String getBeanName(TypeElement type) {
+        String name = null;
+        AnnotationMirror component = getDirectAnnotation(type, Component.class.getName());
+        if (component != null) {
+            name = (String) getValue(component, "value");
+        } else {
+            for (AnnotationMirror anno : type.getAnnotationMirrors()) {
+                Element annoType = anno.getAnnotationType().asElement();
+                if (findAnnotation(annoType, Component.class.getName(), new HashSet<>()) != null
+                        && getValue(anno, "value") instanceof String value) {
+                    name = value;
+                }
+            }
+        }
+        if (name == null || name.isEmpty()) {
+            name = type.getSimpleName().toString();
+            name = Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        }
+        return name;
+    }
+
+    int getOrder(AnnotationMirror order) {
+        return order == null ? Integer.MAX_VALUE : (Integer) getValue(order, "value");
+    }
+
+    /**
+     * 递归查找注解，包括标注在注解上的注解
+     */
+    AnnotationMirror findAnnotation(Element element, String annoName, Set<String> visited) {
+        for (AnnotationMirror anno : element.getAnnotationMirrors()) {
+            TypeElement annoType = (TypeElement) anno.getAnnotationType().asElement();
+            String name = annoType.getQualifiedName().toString();
+            if (name.equals(annoName)) {
+                return anno;
+            }
+            if (!name.startsWith("java.lang.annotation.") && visited.add(name)) {
+                AnnotationMirror found = findAnnotation(annoType, annoName, visited);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    AnnotationMirror getDirectAnnotation(Element element, String annoName) {
+        for (AnnotationMirror anno : element.getAnnotationMirrors()) {
+            if (((TypeElement) anno.getAnnotationType().asElement()).getQualifiedName().contentEquals(annoName)) {
+                return anno;
+            }
+        }
+        return null;
+    }
+
+    Object getValue(AnnotationMirror anno, String name) {
+        for (var entry : processingEnv.getElementUtils().getElementValuesWithDefaults(anno).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,511 @@
+package org.example.io;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 只读取jar包中央目录（central directory）的轻量级读取器，用于按包名列出jar包中的文件。
+ *
+ * 打开时只映射文件末尾的EOCD记录和中央目录，一次解析出所有文件名并排序，不读取任何文件内容，
+ * 之后按前缀列出文件只需要二分查找。与为每个jar: URL创建zipfs FileSystem相比，没有FileSystem的初始化开销，
+ * 同一个jar包也可以被多次扫描。close()关闭文件句柄。
+ *
+ * 中央目录中同时记录了每个文件的压缩方式、大小和本地文件头的位置，因此可以直接读取文件内容：
+ * 小文件（例如class文件）和压缩（DEFLATED）的文件通过已打开的文件句柄按位置读取，
+ * 只有不小于MAP_THRESHOLD的未压缩（STORED）文件才映射jar包中对应的区域，避免为每次读取创建映射。
+ * JarReader关闭后仍然可以读取，此时临时打开jar包。
+ *
+ * zip格式参考 https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT ，支持ZIP64，
+ * 以及前面有额外数据（例如启动脚本）的jar包。
+ */
+public final class JarReader implements Closeable {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+
+    private static final int ZIP64_EOCD_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+
+    private static final int CEN_SIGNATURE = 0x02014b50;
+
+    private static final int LOC_SIGNATURE = 0x04034b50;
+
+    // EOCD记录的固定长度，之后是最长65535字节的注释
+    private static final int EOCD_SIZE = 22;
+
+    private static final int ZIP64_EOCD_LOCATOR_SIZE = 20;
+
+    private static final int ZIP64_EOCD_SIZE = 56;
+
+    // 中央目录中每个文件头的固定长度，之后是文件名、扩展字段和注释
+    private static final int CEN_SIZE = 46;
+
+    // 本地文件头的固定长度，之后是文件名和扩展字段，然后是文件内容
+    private static final int LOC_SIZE = 30;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    // 未压缩的文件不小于该大小时才映射，映射的创建和释放开销远大于读取一个小文件
+    static final int MAP_THRESHOLD = 256 * 1024;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    // 所有文件（不含目录）的名称，已排序
+    private final String[] names;
+
+    // 与names一一对应
+    private final Entry[] entries;
+
+    private JarReader(Path path, FileChannel channel, Entry[] entries) {
+        this.path = path;
+        this.channel = channel;
+        this.entries = entries;
+        this.names = new String[entries.length];
+        for (int i = 0; i < entries.length; i ++) {
+            this.names[i] = entries[i].name();
+        }
+    }
+
+    public static JarReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            Entry[] entries = readEntries(path, channel);
+            Arrays.sort(entries, Comparator.comparing(Entry::name));
+            return new JarReader(path, channel, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 按名称顺序列出以prefix开头的所有文件，例如list("org/example/")
+     */
+    public List<String> list(String prefix) {
+        int end = upperBound(prefix);
+        List<String> result = new ArrayList<>();
+        for (int i = lowerBound(prefix); i < end; i ++) {
+            result.add(this.names[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 第一个不小于prefix的文件名的下标，即以prefix开头的文件名的起始下标
+     */
+    int lowerBound(String prefix) {
+        int i = Arrays.binarySearch(this.names, prefix);
+        return i < 0 ? -i - 1 : i;
+    }
+
+    /**
+     * 以prefix开头的文件名的结束下标（不包含）
+     */
+    int upperBound(String prefix) {
+        return lowerBound(prefix + Character.MAX_VALUE);
+    }
+
+    String getName(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * 文件解压后的大小
+     */
+    public long size(String name) throws IOException {
+        return getEntry(name).size();
+    }
+
+    /**
+     * 文件的最后修改时间（毫秒），由中央目录中的DOS时间按本地时区换算，与ZipEntry.getTime()一致
+     */
+    public long lastModified(String name) throws IOException {
+        int time = getEntry(name).dosTime();
+        LocalDateTime ldt = LocalDateTime.of(((time >>> 25) & 0x7f) + 1980, 1, 1, 0, 0)
+                .plusMonths(((time >>> 21) & 0x0f) - 1)
+                .plusDays(((time >>> 16) & 0x1f) - 1)
+                .plusHours((time >>> 11) & 0x1f)
+                .plusMinutes((time >>> 5) & 0x3f)
+                .plusSeconds((time << 1) & 0x3e);
+        return ldt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 以ByteBuffer返回文件内容：较大的未压缩文件直接映射jar包中的对应区域，其他文件读取（解压）到堆中
+     */
+    public ByteBuffer map(String name) throws IOException {
+        Entry entry = getEntry(name);
+        long dataStart = getDataStart(entry);
+        if (entry.method() == STORED) {
+            if (entry.compressedSize() >= MAP_THRESHOLD) {
+                return mapData(entry, dataStart);
+            }
+            return readData(entry, dataStart);
+        }
+        if (entry.size() > Integer.MAX_VALUE) {
+            throw new ZipException("文件过大，无法读取：" + name);
+        }
+        ByteBuffer data = readData(entry, dataStart);
+        ByteBuffer out = ByteBuffer.allocate((int) entry.size());
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            while (!inflater.finished() && out.hasRemaining()) {
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new ZipException("压缩数据不完整：" + name);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("无效的压缩数据：" + name + "，" + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        if (out.hasRemaining()) {
+            throw new ZipException("解压后的大小与中央目录不一致：" + name);
+        }
+        return out.flip();
+    }
+
+    /**
+     * 以Channel读取文件内容，从文件句柄按位置顺序读取，压缩的文件边读边解压，不会一次读取整个文件
+     */
+    public ReadableByteChannel openChannel(String name) throws IOException {
+        Entry entry = getEntry(name);
+        long dataStart = getDataStart(entry);
+        ReadableByteChannel data = new EntryChannel(this, dataStart, dataStart + entry.compressedSize());
+        if (entry.method() == STORED) {
+            return data;
+        }
+        Inflater inflater = new Inflater(true);
+        InputStream input = new InflaterInputStream(Channels.newInputStream(data), inflater) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                // 传入自定义Inflater时InflaterInputStream不会释放它
+                inflater.end();
+            }
+        };
+        return Channels.newChannel(input);
+    }
+
+    private Entry getEntry(String name) throws IOException {
+        int i = Arrays.binarySearch(this.names, name);
+        if (i < 0) {
+            throw new FileNotFoundException(name + " not found in " + this.path);
+        }
+        return this.entries[i];
+    }
+
+    /**
+     * 文件数据（压缩的文件为压缩后的数据）在jar包中的位置，需要从本地文件头中读取，
+     * 因为本地文件头中扩展字段的长度可能与中央目录中的不同
+     */
+    private long getDataStart(Entry entry) throws IOException {
+        if (entry.method() != STORED && entry.method() != DEFLATED) {
+            throw new ZipException("不支持的压缩方式" + entry.method() + "：" + entry.name());
+        }
+        if (entry.compressedSize() > Integer.MAX_VALUE) {
+            throw new ZipException("文件过大，无法读取：" + entry.name());
+        }
+        ByteBuffer loc = ByteBuffer.allocate(LOC_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(loc, entry.offset(), entry);
+        if (loc.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("无效的本地文件头：" + entry.name());
+        }
+        return entry.offset() + LOC_SIZE + Short.toUnsignedInt(loc.getShort(26)) + Short.toUnsignedInt(loc.getShort(28));
+    }
+
+    private ByteBuffer readData(Entry entry, long dataStart) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) entry.compressedSize());
+        readFully(data, dataStart, entry);
+        return data.flip();
+    }
+
+    /**
+     * 映射在关闭文件后依然有效
+     */
+    private ByteBuffer mapData(Entry entry, long dataStart) throws IOException {
+        if (this.channel.isOpen()) {
+            try {
+                return this.channel.map(FileChannel.MapMode.READ_ONLY, dataStart, entry.compressedSize());
+            } catch (ClosedChannelException e) {
+                // 并发关闭，改为临时打开
+            }
+        }
+        try (FileChannel ch = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, dataStart, entry.compressedSize());
+        }
+    }
+
+    /**
+     * 从position开始读满dst（dst的position为0）。按位置读取不改变文件句柄的位置，多个线程可以同时读取同一个jar包
+     */
+    private void readFully(ByteBuffer dst, long position, Entry entry) throws IOException {
+        if (this.channel.isOpen()) {
+            try {
+                readFully(this.channel, dst, position, entry);
+                return;
+            } catch (ClosedChannelException e) {
+                rethrowIfInterrupted(e);
+                dst.clear();
+            }
+        }
+        try (FileChannel ch = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            readFully(ch, dst, position, entry);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer dst, long position, Entry entry) throws IOException {
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, position + dst.position()) < 0) {
+                throw new ZipException("文件数据不完整：" + entry.name());
+            }
+        }
+    }
+
+    /**
+     * JarReader已经（被并发）关闭时可以临时打开jar包重试，但读取的线程被中断导致文件句柄关闭时不再重试
+     */
+    private static void rethrowIfInterrupted(ClosedChannelException e) throws ClosedChannelException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private static Entry[] readEntries(Path path, FileChannel channel) throws IOException {
+        long size = channel.size();
+        int tailSize = (int) Math.min(size, EOCD_SIZE + 0xFFFF);
+        long tailStart = size - tailSize;
+        ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, tailStart, tailSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        // 从后向前查找EOCD
+        int eocd = -1;
+        for (int i = tailSize - EOCD_SIZE; i >= 0; i --) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new ZipException("不是有效的jar文件：" + path);
+        }
+        long count = Short.toUnsignedInt(tail.getShort(eocd + 10));
+        long cenSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long cenOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        // 中央目录紧挨在EOCD之前，按EOCD的位置计算，jar包前面有额外数据时也能正确定位
+        long cenStart = tailStart + eocd - cenSize;
+
+        int locator = eocd - ZIP64_EOCD_LOCATOR_SIZE;
+        if (locator >= 0 && tail.getInt(locator) == ZIP64_EOCD_LOCATOR_SIGNATURE) {
+            // 定位器中记录的位置不包括前面的额外数据，不一致时使用紧挨在定位器之前的ZIP64 EOCD记录
+            long zip64Start = tail.getLong(locator + 8);
+            ByteBuffer zip64 = readZip64End(channel, zip64Start);
+            if (zip64 == null) {
+                zip64Start = tailStart + locator - ZIP64_EOCD_SIZE;
+                zip64 = readZip64End(channel, zip64Start);
+            }
+            if (zip64 == null) {
+                throw new ZipException("无效的ZIP64记录：" + path);
+            }
+            count = zip64.getLong(32);
+            cenSize = zip64.getLong(40);
+            cenOffset = zip64.getLong(48);
+            cenStart = zip64Start - cenSize;
+        }
+        if (cenStart < 0 || cenSize > Integer.MAX_VALUE) {
+            throw new ZipException("无效的中央目录：" + path);
+        }
+        // 中央目录和本地文件头中记录的位置相对于zip数据的开头，加上前面额外数据的长度才是在文件中的位置
+        long base = cenStart - cenOffset;
+        if (base < 0) {
+            throw new ZipException("无效的中央目录：" + path);
+        }
+
+        ByteBuffer cen = channel.map(FileChannel.MapMode.READ_ONLY, cenStart, cenSize).order(ByteOrder.LITTLE_ENDIAN);
+        List<Entry> entries = new ArrayList<>((int) Math.min(count, 0x10000));
+        int pos = 0;
+        while (pos + CEN_SIZE <= cenSize) {
+            if (cen.getInt(pos) != CEN_SIGNATURE) {
+                throw new ZipException("无效的中央目录：" + path);
+            }
+            int nameLength = Short.toUnsignedInt(cen.getShort(pos + 28));
+            int extraLength = Short.toUnsignedInt(cen.getShort(pos + 30));
+            int commentLength = Short.toUnsignedInt(cen.getShort(pos + 32));
+            byte[] name = new byte[nameLength];
+            cen.get(pos + CEN_SIZE, name);
+            // 与JarFile一致，文件名按UTF-8解码
+            String s = new String(name, StandardCharsets.UTF_8);
+            if (!s.endsWith("/")) {
+                long entrySize = Integer.toUnsignedLong(cen.getInt(pos + 24));
+                long compressedSize = Integer.toUnsignedLong(cen.getInt(pos + 20));
+                long offset = Integer.toUnsignedLong(cen.getInt(pos + 42));
+                // 超过4G的值记录在ZIP64扩展字段中，按解压大小、压缩大小、偏移的顺序只出现被标记的字段
+                int extra = pos + CEN_SIZE + nameLength;
+                int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    int id = Short.toUnsignedInt(cen.getShort(extra));
+                    int length = Short.toUnsignedInt(cen.getShort(extra + 2));
+                    if (id == ZIP64_EXTRA_ID) {
+                        int field = extra + 4;
+                        if (entrySize == ZIP64_MAGIC) {
+                            entrySize = cen.getLong(field);
+                            field += 8;
+                        }
+                        if (compressedSize == ZIP64_MAGIC) {
+                            compressedSize = cen.getLong(field);
+                            field += 8;
+                        }
+                        if (offset == ZIP64_MAGIC) {
+                            offset = cen.getLong(field);
+                        }
+                        break;
+                    }
+                    extra += 4 + length;
+                }
+                entries.add(new Entry(s, Short.toUnsignedInt(cen.getShort(pos + 10)), cen.getInt(pos + 12),
+                        entrySize, compressedSize, base + offset));
+            }
+            pos += CEN_SIZE + nameLength + extraLength + commentLength;
+        }
+        return entries.toArray(new Entry[0]);
+    }
+
+    /**
+     * 读取position处的ZIP64 EOCD记录，签名不正确时返回null
+     */
+    private static ByteBuffer readZip64End(FileChannel channel, long position) throws IOException {
+        if (position < 0 || position + ZIP64_EOCD_SIZE > channel.size()) {
+            return null;
+        }
+        ByteBuffer zip64 = ByteBuffer.allocate(ZIP64_EOCD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (zip64.hasRemaining()) {
+            if (channel.read(zip64, position + zip64.position()) < 0) {
+                return null;
+            }
+        }
+        return zip64.getInt(0) == ZIP64_EOCD_SIGNATURE ? zip64 : null;
+    }
+
+    /**
+     * 中央目录中的一个文件
+     *
+     * @param method 压缩方式，0为STORED，8为DEFLATED
+     * @param dosTime 最后修改时间，低16位为时间，高16位为日期
+     * @param offset 本地文件头在jar包文件中的位置，已加上前面额外数据的长度
+     */
+    private record Entry(String name, int method, int dosTime, long size, long compressedSize, long offset) {
+    }
+
+    /**
+     * 按位置顺序读取jar包中[position, end)区域的Channel，优先使用JarReader的文件句柄，JarReader关闭后改为自行打开
+     */
+    private static final class EntryChannel implements ReadableByteChannel {
+
+        private final JarReader jar;
+
+        private final long end;
+
+        private long position;
+
+        // JarReader关闭后自行打开的文件句柄
+        private FileChannel own;
+
+        private boolean open = true;
+
+        EntryChannel(JarReader jar, long position, long end) {
+            this.jar = jar;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public synchronized int read(ByteBuffer dst) throws IOException {
+            if (!this.open) {
+                throw new ClosedChannelException();
+            }
+            long remaining = this.end - this.position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > remaining) {
+                dst.limit(dst.position() + (int) remaining);
+            }
+            try {
+                int n = read0(dst);
+                if (n < 0) {
+                    throw new ZipException("文件数据不完整：" + this.jar.path);
+                }
+                this.position += n;
+                return n;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        private int read0(ByteBuffer dst) throws IOException {
+            if (this.own == null && this.jar.channel.isOpen()) {
+                try {
+                    return this.jar.channel.read(dst, this.position);
+                } catch (ClosedChannelException e) {
+                    rethrowIfInterrupted(e);
+                }
+            }
+            if (this.own == null) {
+                this.own = FileChannel.open(this.jar.path, StandardOpenOption.READ);
+            }
+            return this.own.read(dst, this.position);
+        }
+
+        @Override
+        public synchronized boolean isOpen() {
+            return this.open;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            this.open = false;
+            if (this.own != null) {
+                this.own.close();
+            }
+        }
+    }
+}
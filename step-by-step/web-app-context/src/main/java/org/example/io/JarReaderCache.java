@@ -0,0 +1,57 @@
+package org.example.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按jar文件缓存JarReader：扫描多个包时每个jar包只打开、解析一次，close()时统一关闭。
+ * 可以被并行扫描的多个线程同时使用。
+ */
+public final class JarReaderCache implements Closeable {
+
+    private final Map<Path, JarReader> readers = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    public JarReader get(Path jar) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("JarReaderCache已关闭");
+        }
+        try {
+            return this.readers.computeIfAbsent(jar.toAbsolutePath().normalize(), path -> {
+                try {
+                    return JarReader.open(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        IOException failure = null;
+        for (JarReader reader : this.readers.values()) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        this.readers.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
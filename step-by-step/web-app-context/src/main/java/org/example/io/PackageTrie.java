@@ -0,0 +1,135 @@
+package org.example.io;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 由要扫描的包名编译成的前缀树，按路径的每一段（/分隔）匹配，
+ * 这样一次遍历classpath根就能同时匹配所有包，每个路径只需要按段数比较。
+ *
+ * 包之间存在嵌套时只保留外层的包，例如com.acme和com.acme.web只保留com.acme，
+ * 因此每个文件最多匹配一次，不会被重复扫描。
+ */
+final class PackageTrie {
+
+    /**
+     * 目录与要扫描的包的关系
+     */
+    enum Match {
+        // 目录就是要扫描的包或其子包，其中的文件都匹配
+        INSIDE,
+        // 目录是某个要扫描的包的上级目录，需要继续向下遍历
+        PREFIX,
+        // 与所有要扫描的包无关，可以跳过整个目录
+        NONE
+    }
+
+    private final Node root = new Node();
+
+    // 去除嵌套后的包路径，已排序，例如org/example
+    private final List<String> packagePaths;
+
+    PackageTrie(Collection<String> packages) {
+        for (String pkg : packages) {
+            add(pkg.isEmpty() ? new String[0] : pkg.split("\\."));
+        }
+        List<String> paths = new ArrayList<>();
+        collect(this.root, "", paths);
+        this.packagePaths = List.copyOf(paths);
+    }
+
+    private void add(String[] segments) {
+        Node node = this.root;
+        for (String segment : segments) {
+            if (node.terminal) {
+                // 外层的包已经包含了该包
+                return;
+            }
+            node = node.children.computeIfAbsent(segment, k -> new Node());
+        }
+        node.terminal = true;
+        // 该包包含了之前添加的子包
+        node.children.clear();
+    }
+
+    private static void collect(Node node, String path, List<String> paths) {
+        if (node.terminal) {
+            paths.add(path);
+            return;
+        }
+        node.children.forEach((segment, child) -> collect(child, path.isEmpty() ? segment : path + '/' + segment, paths));
+    }
+
+    List<String> getPackagePaths() {
+        return packagePaths;
+    }
+
+    /**
+     * 所有包路径的公共前缀，以/结尾，没有公共前缀时为空字符串，用于缩小jar包中央目录的查找范围
+     */
+    String getCommonPrefix() {
+        StringBuilder sb = new StringBuilder();
+        Node node = this.root;
+        while (!node.terminal && node.children.size() == 1) {
+            Map.Entry<String, Node> entry = node.children.entrySet().iterator().next();
+            sb.append(entry.getKey()).append('/');
+            node = entry.getValue();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 判断相对于classpath根的目录（例如org/example，根目录为空字符串）与要扫描的包的关系
+     */
+    Match matchDirectory(String path) {
+        Node node = this.root;
+        int start = 0;
+        while (!node.terminal) {
+            if (start >= path.length()) {
+                return Match.PREFIX;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return Match.NONE;
+            }
+            start = end + 1;
+        }
+        return Match.INSIDE;
+    }
+
+    /**
+     * 判断相对于classpath根的文件（例如org/example/Hello.class）是否在要扫描的包中
+     */
+    boolean matches(String name) {
+        Node node = this.root;
+        int start = 0;
+        while (!node.terminal) {
+            int end = name.indexOf('/', start);
+            if (end < 0) {
+                // 已经到了文件名，所在目录不在任何要扫描的包中
+                return false;
+            }
+            node = node.children.get(name.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static final class Node {
+
+        // 按段排序，保证getPackagePaths()的顺序稳定
+        final Map<String, Node> children = new TreeMap<>();
+
+        boolean terminal;
+    }
+}
@@ -78,9 +78,9 @@ public class PropertyResolver {
         PropertyExpr expr = parseProperty(key);
         if (expr != null) {
             if (expr.defaultValue() != null) {
-                return getProperty(key, expr.defaultValue());
+                return getProperty(expr.key(), expr.defaultValue());
             } else {
-                return getProperty(key);
+                return getProperty(expr.key());
             }
         }
         String value = this.properties.get(key);
@@ -89,7 +89,7 @@ public class PropertyResolver {
 
     public String getProperty(String key, String defaultValue) {
         String value = getProperty(key);
-        return value == null ? null: defaultValue;
+        return value == null ? defaultValue : value;
     }
 
     /**
@@ -1,45 +1,186 @@
 package org.example.io;
 
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
 import net.bytebuddy.implementation.InvocationHandlerAdapter;
 import net.bytebuddy.matcher.ElementMatchers;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class ProxyResolver {
 
     ByteBuddy byteBuddy = new ByteBuddy();
 
-    private static ProxyResolver INSTANCE = null;
+    // 多个容器可能在不同线程中同时刷新，因此在类加载时创建
+    private static final ProxyResolver INSTANCE = new ProxyResolver();
 
+    // 生成的代理类中保存InvocationHandler的实例字段
+    private static final String HANDLER_FIELD = "summer$handler";
+
+    // sun.reflect.ReflectionFactory（jdk.unsupported模块）以反射获取，避免编译期依赖内部API
+    private static final Object REFLECTION_FACTORY;
+
+    private static final Method NEW_CONSTRUCTOR_FOR_SERIALIZATION;
+
+    static {
+        try {
+            Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+            REFLECTION_FACTORY = factoryClass.getMethod("getReflectionFactory").invoke(null);
+            NEW_CONSTRUCTOR_FOR_SERIALIZATION = factoryClass.getMethod("newConstructorForSerialization", Class.class, Constructor.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // 按被代理的类型缓存代理类，同一类型的所有代理实例共用一个代理类，只是HANDLER_FIELD不同
+    private final ClassValue<ProxyClass> proxyClasses = new ClassValue<>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> type) {
+            return createProxyClass(type);
+        }
+    };
+
+    /**
+     * 创建AOP代理：public方法的调用交给handler处理，handler收到的第一个参数为原始的bean。
+     *
+     * 代理类按bean的类型缓存，同一类型的Bean（例如每次创建的prototype的Bean）不会重复生成代理类。
+     */
+    @SuppressWarnings("unchecked")
     public <T> T createProxy(T bean, InvocationHandler handler){
-        Class<?> targetClass = bean.getClass();
+        return (T) this.proxyClasses.get(bean.getClass()).newInstance(
+                (proxy, method, args) -> handler.invoke(bean, method, args));
+    }
+
+    /**
+     * 创建懒加载代理：代理是type的子类（或实现类），在第一次调用public方法时才通过targetSupplier获取真正的对象，
+     * 之后的调用都直接转发给该对象。
+     *
+     * 代理实例不调用type的构造方法，因此不会提前创建一个真正的对象，type也不需要无参构造方法。
+     */
+    public <T> T createLazyProxy(Class<T> type, Supplier<?> targetSupplier) {
+        return type.cast(this.proxyClasses.get(type).newInstance(new LazyInvocationHandler(targetSupplier)));
+    }
+
+    /**
+     * 创建对象池代理：每次调用public方法时通过borrow借出一个对象，调用结束后通过release归还。
+     *
+     * 与懒加载代理共用缓存的代理类，代理实例不调用type的构造方法，不会在池外创建多余的实例。
+     */
+    public <T> T createPooledProxy(Class<T> type, Supplier<?> borrow, Consumer<Object> release) {
+        return type.cast(this.proxyClasses.get(type).newInstance(new PooledInvocationHandler(borrow, release)));
+    }
+
+    public static ProxyResolver getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 生成type的代理类：不生成构造方法，所有public方法转发给HANDLER_FIELD中的InvocationHandler
+     */
+    private ProxyClass createProxyClass(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader() == null ? ProxyResolver.class.getClassLoader() : type.getClassLoader();
         Class<?> proxyClass = byteBuddy
-                .subclass(bean.getClass())
+                .subclass(type, ConstructorStrategy.Default.NO_CONSTRUCTORS)
+                .defineField(HANDLER_FIELD, InvocationHandler.class, Visibility.PUBLIC)
                 .method(ElementMatchers.isPublic())
-                .intercept(InvocationHandlerAdapter.of(
-                        new InvocationHandler() {
-                            @Override
-                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-                                return handler.invoke(bean, method, args);
-                            }
-                        }
-                )).make().load(targetClass.getClassLoader()).getLoaded();
-        Object proxy;
+                .intercept(InvocationHandlerAdapter.toField(HANDLER_FIELD))
+                .make().load(classLoader).getLoaded();
         try {
-            proxy = proxyClass.getConstructor().newInstance();
-        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            // 通过序列化使用的构造方法分配实例，只执行Object的构造方法，跳过type及其父类的构造方法
+            Constructor<?> constructor = (Constructor<?>) NEW_CONSTRUCTOR_FOR_SERIALIZATION.invoke(
+                    REFLECTION_FACTORY, proxyClass, Object.class.getDeclaredConstructor());
+            Field handler = proxyClass.getDeclaredField(HANDLER_FIELD);
+            handler.setAccessible(true);
+            return new ProxyClass(constructor, handler);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("无法为" + type.getName() + "生成代理类", e);
         }
-        return (T)proxy;
     }
 
-    public static ProxyResolver getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new ProxyResolver();
+    /**
+     * 缓存的代理类，每个实例持有自己的InvocationHandler
+     */
+    private record ProxyClass(Constructor<?> constructor, Field handler) {
+
+        Object newInstance(InvocationHandler invocationHandler) {
+            try {
+                Object proxy = this.constructor.newInstance();
+                this.handler.set(proxy, invocationHandler);
+                return proxy;
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException("无法创建" + this.constructor.getDeclaringClass().getName() + "的代理", e);
+            }
+        }
+    }
+
+    /**
+     * 每次调用借出一个对象，调用结束后归还
+     */
+    static class PooledInvocationHandler implements InvocationHandler {
+
+        private final Supplier<?> borrow;
+
+        private final Consumer<Object> release;
+
+        PooledInvocationHandler(Supplier<?> borrow, Consumer<Object> release) {
+            this.borrow = borrow;
+            this.release = release;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object target = this.borrow.get();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                this.release.accept(target);
+            }
+        }
+    }
+
+    /**
+     * 双重检查创建目标对象，之后的方法调用直接转发给目标对象
+     */
+    static class LazyInvocationHandler implements InvocationHandler {
+
+        private final Supplier<?> targetSupplier;
+
+        private volatile Object target;
+
+        LazyInvocationHandler(Supplier<?> targetSupplier) {
+            this.targetSupplier = targetSupplier;
+        }
+
+        Object getTarget() {
+            Object t = this.target;
+            if (t == null) {
+                synchronized (this) {
+                    t = this.target;
+                    if (t == null) {
+                        t = this.targetSupplier.get();
+                        this.target = t;
+                    }
+                }
+            }
+            return t;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(getTarget(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
         }
-        return INSTANCE;
     }
 }
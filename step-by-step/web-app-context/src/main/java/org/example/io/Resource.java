@@ -1,4 +1,109 @@
 package org.example.io;
 
-public record Resource(String path, String name) {
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 扫描得到的文件。
+ *
+ * 扫描时保留了文件所在的位置：目录中的文件为file，jar包中的文件为jar，因此可以直接读取内容，
+ * 不需要再通过ClassLoader查找一次：
+ * 1、asByteBuffer()：目录中的文件映射到内存，jar包中较大的未压缩文件直接映射jar包中的对应区域，其他文件通过已打开的jar包读取；
+ * 2、openChannel()：按Channel读取，适合只需要顺序读取一次的大文件。
+ * 自行创建的Resource（file和jar都为null）按name通过ClassLoader查找后读取。
+ */
+public record Resource(String path, String name, Path file, JarReader jar) {
+
+    public Resource(String path, String name) {
+        this(path, name, null, null);
+    }
+
+    public ReadableByteChannel openChannel() throws IOException {
+        if (this.file != null) {
+            return FileChannel.open(this.file, StandardOpenOption.READ);
+        }
+        if (this.jar != null) {
+            return this.jar.openChannel(this.name);
+        }
+        return Channels.newChannel(openConnection().getInputStream());
+    }
+
+    /**
+     * 返回只读的ByteBuffer，目录中的文件通过内存映射读取，文件不能超过2G
+     */
+    public ByteBuffer asByteBuffer() throws IOException {
+        if (this.file != null) {
+            try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("文件过大，无法映射：" + this.file);
+                }
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        if (this.jar != null) {
+            return this.jar.map(this.name).asReadOnlyBuffer();
+        }
+        try (InputStream input = openConnection().getInputStream()) {
+            return ByteBuffer.wrap(input.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
+
+    public long size() throws IOException {
+        if (this.file != null) {
+            return Files.size(this.file);
+        }
+        if (this.jar != null) {
+            return this.jar.size(this.name);
+        }
+        URLConnection connection = openConnection();
+        // 打开后立即关闭输入流，以释放jar: URL打开的jar文件
+        try (InputStream ignored = connection.getInputStream()) {
+            return connection.getContentLengthLong();
+        }
+    }
+
+    /**
+     * 最后修改时间（毫秒）
+     */
+    public long lastModified() throws IOException {
+        if (this.file != null) {
+            return Files.getLastModifiedTime(this.file).toMillis();
+        }
+        if (this.jar != null) {
+            return this.jar.lastModified(this.name);
+        }
+        URLConnection connection = openConnection();
+        try (InputStream ignored = connection.getInputStream()) {
+            return connection.getLastModified();
+        }
+    }
+
+    /**
+     * 没有file和jar时，按name从ContextClassLoader查找
+     */
+    private URLConnection openConnection() throws IOException {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        if (cl == null) {
+            cl = Resource.class.getClassLoader();
+        }
+        URL url = cl.getResource(this.name);
+        if (url == null) {
+            throw new FileNotFoundException("File not found in classpath: " + this.name);
+        }
+        URLConnection connection = url.openConnection();
+        // 不缓存jar文件，避免jar: URL一直占用文件句柄
+        connection.setUseCaches(false);
+        return connection;
+    }
 }
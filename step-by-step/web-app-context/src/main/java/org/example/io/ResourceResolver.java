@@ -1,5 +1,6 @@
 package org.example.io;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
@@ -7,21 +8,67 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ResourceResolver {
-    String basePackage;
+    // 要扫描的包，编译为前缀树
+    final PackageTrie packages;
+
+    // 扫描jar包时使用的JarReader缓存，为null时每次扫描使用临时的缓存，扫描结束时关闭
+    private final JarReaderCache jarReaderCache;
+
+    // 只扫描该过滤器接受的classpath根（目录时为classpath根目录，jar包时为jar文件）
+    private final Predicate<Path> rootFilter;
 
     public ResourceResolver(String basePackage) {
-        this.basePackage = basePackage;
+        this(List.of(basePackage), null);
+    }
+
+    /**
+     * 扫描多个包时共享jarReaderCache，每个jar包只打开一次，由调用方负责关闭
+     */
+    public ResourceResolver(String basePackage, JarReaderCache jarReaderCache) {
+        this(List.of(basePackage), jarReaderCache);
+    }
+
+    /**
+     * 一次扫描多个包：每个classpath根只遍历一次，通过前缀树同时匹配所有包。
+     * 嵌套的包（例如com.acme和com.acme.web）只遍历外层的包，多个classpath根中的同名文件只返回第一个。
+     */
+    public ResourceResolver(Collection<String> basePackages, JarReaderCache jarReaderCache) {
+        this(basePackages, jarReaderCache, root -> true);
+    }
+
+    /**
+     * 只扫描rootFilter接受的classpath根，例如跳过已有组件索引的jar包
+     */
+    public ResourceResolver(Collection<String> basePackages, JarReaderCache jarReaderCache, Predicate<Path> rootFilter) {
+        this.packages = new PackageTrie(basePackages);
+        this.jarReaderCache = jarReaderCache;
+        this.rootFilter = rootFilter;
     }
 
     /**
@@ -36,11 +83,9 @@ public class ResourceResolver {
      * @param <R>
      */
     public <R> List<R> scan(Function<Resource, R> mapper) {
-        String basePackagePath = this.basePackage.replace('.', '/');// 将包名更改为文件路径
-        String path = basePackagePath;
-        try {
+        try (JarReaderCache owned = this.jarReaderCache == null ? new JarReaderCache() : null) {
             List<R> collector = new ArrayList<>();
-            scan0(basePackagePath, path, collector, mapper);
+            scan0(collector, mapper, owned != null ? owned : this.jarReaderCache);
             return collector;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -49,88 +94,323 @@ public class ResourceResolver {
         }
     }
 
+    /**
+     * 在pool中并行扫描：
+     * 1、每个classpath根（目录或jar包）并行列出其中的文件；
+     * 2、所有文件合并后并行调用mapper（通常是读取并解析class文件）。
+     *
+     * 结果与scan(mapper)完全相同：按根的顺序，根内按路径排序，与线程调度无关。
+     * mapper会在多个线程中同时调用，必须是线程安全的。
+     */
+    public <R> List<R> scan(Function<Resource, R> mapper, ForkJoinPool pool) {
+        try (JarReaderCache owned = this.jarReaderCache == null ? new JarReaderCache() : null) {
+            JarReaderCache cache = owned != null ? owned : this.jarReaderCache;
+            List<ScanRoot> roots = findRoots();
+            return pool.submit(() -> {
+                List<List<Resource>> listed = roots.parallelStream()
+                        .map(root -> {
+                            try {
+                                return listResources(root, cache);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .toList();
+                // 按根的顺序去重，再以有序的并行流处理，toList()保持遍历顺序
+                Set<String> names = new HashSet<>();
+                List<Resource> resources = listed.stream().flatMap(List::stream).filter(res -> names.add(res.name())).toList();
+                return resources.parallelStream().map(mapper).filter(Objects::nonNull).toList();
+            }).join();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 以Stream惰性地返回要扫描的包中的所有文件，不会把结果收集到列表中，内存占用与匹配的文件数量无关：
+     * 1、jar包在中央目录的文件名中按下标逐个匹配，目录按深度优先逐层列出，同一目录内按名称排序；
+     * 2、支持并行流，按classpath根、jar包中央目录的下标范围、目录中尚未遍历的子目录拆分；
+     * 3、与scan()不同，不会对多个classpath根中的同名文件去重，例如每个jar包中的同名配置文件都会返回。
+     *
+     * 返回的Stream持有打开的jar包，使用完毕后必须关闭，例如使用try-with-resources。
+     */
+    public Stream<Resource> stream() {
+        List<ScanRoot> roots;
+        try {
+            roots = findRoots();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+        if (this.jarReaderCache != null) {
+            return StreamSupport.stream(new ResourceSpliterator(this, roots, this.jarReaderCache), false);
+        }
+        JarReaderCache owned = new JarReaderCache();
+        return StreamSupport.stream(new ResourceSpliterator(this, roots, owned), false).onClose(() -> {
+            try {
+                owned.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     /**
      * 在ClassPath中扫描文件的代码是固定模式，可以在网上搜索获得
      * 参考 https://stackoverflow.com/questions/520328/can-you-find-all-classes-in-a-package-using-reflection#58773038
      *
-     * @param basePackagePath
-     * @param path
+     * @param collector 收集mapper的结果
+     * @param mapper 处理每个文件
+     * @param jarReaderCache 读取jar包的中央目录
      * @throws IOException
      * @throws URISyntaxException
      */
     <R> void scan0(
-            String basePackagePath,
-            String path,
             List<R> collector,
-            Function<Resource, R> mapper)
+            Function<Resource, R> mapper,
+            JarReaderCache jarReaderCache)
             throws IOException, URISyntaxException {
-        // 通过classloader获得url列表
-        Enumeration<URL> en = getContextClassLoader().getResources(path);
-        while (en.hasMoreElements()) {
-            URL url = en.nextElement();
-            URI uri = url.toURI();
-            String uriStr = removeTrailingSlash(uriToString(uri)); // 此时uriStr为
-            String uriBaseStr = uriStr.substring(0, uriStr.length() - basePackagePath.length());
-            if (uriBaseStr.startsWith("file:")) {
-                // 在目录中搜索
-                uriBaseStr = uriBaseStr.substring(5);
+        Set<String> names = new HashSet<>();
+        for (ScanRoot root : findRoots()) {
+            scanFile(root, collector, mapper, jarReaderCache, names);
+        }
+    }
+
+    /**
+     * 通过classloader获得要扫描的包所在的所有classpath根，每个根只返回一次，
+     * 顺序为包路径的顺序，同一个包内与ClassLoader.getResources()一致
+     */
+    List<ScanRoot> findRoots() throws IOException, URISyntaxException {
+        Map<String, ScanRoot> roots = new LinkedHashMap<>();
+        for (String packagePath : this.packages.getPackagePaths()) {
+            Enumeration<URL> en = getContextClassLoader().getResources(packagePath);
+            while (en.hasMoreElements()) {
+                URL url = en.nextElement();
+                URI uri = url.toURI();
+                String uriStr = removeTrailingSlash(uriToString(uri));
+                String uriBaseStr = uriStr.substring(0, uriStr.length() - packagePath.length());
+                if (uriBaseStr.startsWith("file:")) {
+                    // 在目录中搜索
+                    uriBaseStr = uriBaseStr.substring(5);
+                }
+                if (roots.containsKey(uriBaseStr)) {
+                    // 该根中的其他包已经在遍历该根时一并匹配
+                    continue;
+                }
+                ScanRoot root;
+                if (uriStr.startsWith("jar:")) {
+                    // 在jar包中搜索，只读取中央目录
+                    root = new ScanRoot(true, uriBaseStr, jarUriToPath(uri));
+                } else {
+                    // 从包目录回到classpath根目录
+                    Path dir = Paths.get(uri);
+                    for (int i = packagePath.isEmpty() ? 0 : packagePath.split("/").length; i > 0; i --) {
+                        dir = dir.getParent();
+                    }
+                    root = new ScanRoot(false, uriBaseStr, dir);
+                }
+                // 被过滤的根也要记录，同一个根中的其他包不再重复判断
+                roots.put(uriBaseStr, this.rootFilter.test(root.root()) ? root : null);
+            }
+        }
+        List<ScanRoot> accepted = new ArrayList<>(roots.size());
+        for (ScanRoot root : roots.values()) {
+            if (root != null) {
+                accepted.add(root);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 计算要扫描的包在classpath中对应位置的指纹，不读取任何class文件内容：
+     * 对jar包，取jar文件的路径、大小和修改时间；对目录，取目录下每个文件的相对路径、大小和修改时间。
+     * 只要classpath没有变化，指纹就不变，可以用来判断扫描结果的缓存是否仍然有效。
+     * 目录的修改时间在原地重新编译class文件时不会变化，因此目录不能只取自身的修改时间，
+     * 计算目录的指纹需要遍历整个包目录，开销与其中的文件数成正比，jar包只需要读取一次文件属性。
+     */
+    public String fingerprint() {
+        return fingerprint(List.of());
+    }
+
+    /**
+     * 在所有要扫描的包之外，同时计算resourceNames（例如@Import的类、注解类、META-INF/summer.components）
+     * 在classpath中每个位置的指纹：位于jar包中时取jar文件，位于目录中时取该文件本身。
+     * 所有包和资源在同一个摘要中一次计算完成。
+     */
+    public String fingerprint(Collection<String> resourceNames) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ClassLoader classLoader = getContextClassLoader();
+            for (String packagePath : this.packages.getPackagePaths()) {
+                Enumeration<URL> en = classLoader.getResources(packagePath);
+                while (en.hasMoreElements()) {
+                    URI uri = en.nextElement().toURI();
+                    if ("jar".equals(uri.getScheme())) {
+                        Path jar = jarUriToPath(uri);
+                        update(digest, jar.toString(), Files.size(jar), Files.getLastModifiedTime(jar).toMillis());
+                    } else {
+                        Path root = Paths.get(uri);
+                        // 遍历时一并读取文件属性，每个文件只stat一次，按相对路径排序保证指纹稳定
+                        Map<String, BasicFileAttributes> files = new TreeMap<>();
+                        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                            @Override
+                            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                                if (attrs.isRegularFile()) {
+                                    files.put(root.relativize(file).toString(), attrs);
+                                }
+                                return FileVisitResult.CONTINUE;
+                            }
+                        });
+                        update(digest, root.toString(), 0, 0);
+                        for (Map.Entry<String, BasicFileAttributes> file : files.entrySet()) {
+                            update(digest, file.getKey(), file.getValue().size(), file.getValue().lastModifiedTime().toMillis());
+                        }
+                    }
+                }
             }
-            if (uriStr.startsWith("jar:")) {
-                // 在jar包中搜索
-                scanFile(true, uriBaseStr, jarUriToPath(basePackagePath, uri), collector, mapper);
-            } else {
-                scanFile(false, uriBaseStr, Paths.get(uri), collector, mapper);
+            for (String resourceName : resourceNames) {
+                update(digest, resourceName, 0, 0);
+                Enumeration<URL> en = classLoader.getResources(resourceName);
+                while (en.hasMoreElements()) {
+                    URI uri = en.nextElement().toURI();
+                    if ("jar".equals(uri.getScheme())) {
+                        Path jar = jarUriToPath(uri);
+                        update(digest, jar.toString(), Files.size(jar), Files.getLastModifiedTime(jar).toMillis());
+                    } else if ("file".equals(uri.getScheme())) {
+                        Path file = Paths.get(uri);
+                        update(digest, file.toString(), Files.size(file), Files.getLastModifiedTime(file).toMillis());
+                    } else {
+                        update(digest, uri.toString(), 0, 0);
+                    }
+                }
             }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException | NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
         }
     }
 
-    Path jarUriToPath(String basePackagePath, URI jarUri) throws IOException {
-        return FileSystems.newFileSystem(jarUri, Map.of()).getPath(basePackagePath);
+    private static void update(MessageDigest digest, String path, long size, long lastModified) {
+        digest.update((path + '|' + size + '|' + lastModified + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 返回jar: URI对应的jar文件，例如jar:file:/path/to/app.jar!/org/example对应/path/to/app.jar
+     */
+    Path jarUriToPath(URI jarUri) {
+        String uri = jarUri.getRawSchemeSpecificPart();
+        return Paths.get(URI.create(uri.substring(0, uri.indexOf("!/"))));
     }
 
     /**
      * 扫描文件并将结果收集到一个列表中
      * 例：
-     * 1、当扫描的是jar包时，以sub路径下的AnnoScan为例，
-     *    isJar = true,
-     *    base = /Users/houjue/myspring/step-by-step/target/test-classes/,
-     *    root = /Users/houjue/myspring/step-by-step/target/test-classes/jakarta/annotation,
+     * 1、当扫描的是jar包时，以jakarta.annotation为例，
+     *    base = jar:file:/Users/houjue/.m2/repository/jakarta/annotation/jakarta.annotation-api/2.1.1/jakarta.annotation-api-2.1.1.jar!/,
+     *    root = /Users/houjue/.m2/repository/jakarta/annotation/jakarta.annotation-api/2.1.1/jakarta.annotation-api-2.1.1.jar,
      * 2、当扫描的是文件时，包名为org.example.scan，则
-     *    isJar = false,
      *    base = /Users/houjue/myspring/step-by-step/target/test-classes/,
-     *    root = /Users/houjue/myspring/step-by-step/target/test-classes/org/example/scan,
+     *    root = /Users/houjue/myspring/step-by-step/target/test-classes,
      *
-     * @param isJar 一个布尔值，用于指示扫描的是否是一个JAR文件。
-     * @param base 一个字符串，表示基础路径。
-     * @param root 一个Path对象，表示要扫描的根路径。
+     * @param root 要扫描的classpath根，包括基础路径、classpath根目录或jar文件。
      * @param collector 一个列表，用于收集扫描结果。这个列表的元素类型是R，这是一个泛型类型，表示可以是任何类型。
      * @param mapper 一个函数，用于将Resource对象映射为R类型的对象。这个函数将被应用到每一个找到的资源上。
+     * @param jarReaderCache 扫描jar包时用于读取中央目录，同一个jar包只打开一次。
+     * @param scannedNames 已扫描过的文件名，之前的classpath根中已经出现过的同名文件不再处理。
      * @param <R> <R>是一个泛型标识符，表示这个方法可以处理任何类型的对象。在这个方法中，R被用作collector列表的元素类型，以及mapper函数的返回类型。
      * @throws IOException
      */
     <R> void scanFile(
-            boolean isJar,
-            String base,
-            Path root,
+            ScanRoot root,
             List<R> collector,
-            Function<Resource, R> mapper)
+            Function<Resource, R> mapper,
+            JarReaderCache jarReaderCache,
+            Set<String> scannedNames)
             throws IOException {
-        String baseDir = removeTrailingSlash(base);
-        Files.walk(root).filter(Files::isRegularFile).forEach(file -> {
-            Resource res = null;
-            if (isJar) {
-                 res = new Resource(baseDir, removeTrailingSlash(file.toString()));
-            } else {
-                String path = file.toString();
-                String name = removeLeadingSlash(path.substring(baseDir.length()));
-                res = new Resource("file" + path, name);
+        for (Resource res : listResources(root, jarReaderCache)) {
+            if (!scannedNames.add(res.name())) {
+                continue;
             }
-
             R r = mapper.apply(res);
             if (r != null) {
                 collector.add(r);
             }
+        }
+    }
+
+    /**
+     * 一次遍历列出root下所有要扫描的包中的文件，按路径排序，保证每次扫描的顺序相同：
+     * jar包通过jarReaderCache读取中央目录，在所有包的公共前缀范围内逐个匹配前缀树；
+     * 目录只进入前缀树中存在的子目录，其他子目录整个跳过。
+     */
+    List<Resource> listResources(ScanRoot root, JarReaderCache jarReaderCache) throws IOException {
+        String baseDir = removeTrailingSlash(root.base());
+        if (root.isJar()) {
+            // 中央目录中的文件名已排序，且没有开头的/
+            JarReader reader = jarReaderCache.get(root.root());
+            List<Resource> resources = new ArrayList<>();
+            for (String name : reader.list(this.packages.getCommonPrefix())) {
+                if (this.packages.matches(name)) {
+                    resources.add(new Resource(baseDir, name, null, reader));
+                }
+            }
+            return resources;
+        }
+        Path rootDir = root.root();
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(rootDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return packages.matchDirectory(toName(rootDir.relativize(dir))) == PackageTrie.Match.NONE
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && packages.matches(toName(rootDir.relativize(file)))) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
         });
+        files.sort(null);
+        List<Resource> resources = new ArrayList<>(files.size());
+        for (Path file : files) {
+            resources.add(createFileResource(baseDir, file));
+        }
+        return resources;
+    }
+
+    /**
+     * 目录中的文件，名称为相对于classpath根的路径
+     */
+    Resource createFileResource(String baseDir, Path file) {
+        String path = file.toString();
+        String name = removeLeadingSlash(path.substring(baseDir.length()));
+        return new Resource("file" + path, name, file, null);
+    }
+
+    /**
+     * 一个要扫描的classpath根
+     *
+     * @param isJar 是否在jar包中
+     * @param base 根的基础路径，用于计算资源名称
+     * @param root 目录时为classpath根目录，jar包时为jar文件
+     */
+    record ScanRoot(boolean isJar, String base, Path root) {
+    }
+
+    /**
+     * 把相对路径转换为以/分隔的名称，例如org/example/Hello.class
+     */
+    private static String toName(Path relative) {
+        return relative.toString().replace(File.separatorChar, '/');
     }
 
     /**
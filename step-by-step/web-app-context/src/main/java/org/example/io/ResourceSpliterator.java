@@ -0,0 +1,295 @@
+package org.example.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * ResourceResolver.stream()的Spliterator，惰性地遍历classpath根：
+ * 1、jar包：在中央目录已排序的文件名中，按所有包的公共前缀确定下标范围，逐个匹配前缀树；
+ * 2、目录：深度优先，只在进入一个目录时列出该目录（按名称排序）并立即关闭DirectoryStream，
+ *    不会一直持有目录句柄，内存占用只与目录深度和单个目录的大小有关。
+ *
+ * 拆分时返回的Spliterator总是覆盖剩余元素的前一部分，因此并行流也保持遍历顺序：
+ * 先拆分尚未开始遍历的classpath根，只剩一个根时拆分jar包的下标范围或最浅一层目录中尚未遍历的部分。
+ */
+final class ResourceSpliterator implements Spliterator<Resource> {
+
+    // jar包中至少有这么多文件名时才继续拆分
+    private static final int MIN_JAR_SPLIT = 64;
+
+    private final ResourceResolver resolver;
+
+    private final List<ResourceResolver.ScanRoot> roots;
+
+    private final JarReaderCache jarReaderCache;
+
+    // 尚未开始遍历的根为roots[rootIndex, rootEnd)
+    private int rootIndex;
+
+    private final int rootEnd;
+
+    // 正在遍历的根，为null时从roots中取下一个
+    private Cursor cursor;
+
+    ResourceSpliterator(ResourceResolver resolver, List<ResourceResolver.ScanRoot> roots, JarReaderCache jarReaderCache) {
+        this(resolver, roots, jarReaderCache, 0, roots.size(), null);
+    }
+
+    private ResourceSpliterator(ResourceResolver resolver, List<ResourceResolver.ScanRoot> roots, JarReaderCache jarReaderCache,
+                                int rootIndex, int rootEnd, Cursor cursor) {
+        this.resolver = resolver;
+        this.roots = roots;
+        this.jarReaderCache = jarReaderCache;
+        this.rootIndex = rootIndex;
+        this.rootEnd = rootEnd;
+        this.cursor = cursor;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Resource> action) {
+        try {
+            while (true) {
+                if (this.cursor == null) {
+                    if (this.rootIndex >= this.rootEnd) {
+                        return false;
+                    }
+                    this.cursor = open(this.roots.get(this.rootIndex ++));
+                }
+                Resource res = this.cursor.next();
+                if (res != null) {
+                    action.accept(res);
+                    return true;
+                }
+                this.cursor = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Spliterator<Resource> trySplit() {
+        int remaining = this.rootEnd - this.rootIndex;
+        if (this.cursor == null && remaining == 1) {
+            // 只剩一个根，打开后在根内部拆分
+            try {
+                this.cursor = open(this.roots.get(this.rootIndex ++));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            remaining = 0;
+        }
+        if (remaining > 0 && (this.cursor != null || remaining > 1)) {
+            // 正在遍历的根和前一半尚未遍历的根交给新的Spliterator
+            int mid = this.rootIndex + remaining / 2;
+            ResourceSpliterator prefix = new ResourceSpliterator(
+                    this.resolver, this.roots, this.jarReaderCache, this.rootIndex, mid, this.cursor);
+            this.rootIndex = mid;
+            this.cursor = null;
+            return prefix;
+        }
+        if (this.cursor != null) {
+            Cursor suffix = this.cursor.split();
+            if (suffix != null) {
+                ResourceSpliterator prefix = new ResourceSpliterator(
+                        this.resolver, this.roots, this.jarReaderCache, this.rootEnd, this.rootEnd, this.cursor);
+                this.cursor = suffix;
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (this.cursor instanceof JarCursor jar && this.rootIndex >= this.rootEnd) {
+            return jar.end - jar.index;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    private Cursor open(ResourceResolver.ScanRoot root) throws IOException {
+        String baseDir = this.resolver.removeTrailingSlash(root.base());
+        if (root.isJar()) {
+            JarReader reader = this.jarReaderCache.get(root.root());
+            String prefix = this.resolver.packages.getCommonPrefix();
+            return new JarCursor(reader, baseDir, reader.lowerBound(prefix), reader.upperBound(prefix));
+        }
+        DirectoryCursor dir = new DirectoryCursor(root.root(), baseDir);
+        dir.enter(root.root());
+        return dir;
+    }
+
+    /**
+     * 一个classpath根的遍历位置
+     */
+    private interface Cursor {
+
+        /**
+         * 返回下一个文件，没有时返回null
+         */
+        Resource next() throws IOException;
+
+        /**
+         * 把剩余部分的后一半拆分出来返回，当前Cursor只保留前一半，无法拆分时返回null
+         */
+        Cursor split();
+    }
+
+    private final class JarCursor implements Cursor {
+
+        final JarReader reader;
+
+        final String baseDir;
+
+        int index;
+
+        int end;
+
+        JarCursor(JarReader reader, String baseDir, int index, int end) {
+            this.reader = reader;
+            this.baseDir = baseDir;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public Resource next() {
+            while (this.index < this.end) {
+                String name = this.reader.getName(this.index ++);
+                if (resolver.packages.matches(name)) {
+                    return new Resource(this.baseDir, name, null, this.reader);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Cursor split() {
+            if (this.end - this.index < MIN_JAR_SPLIT) {
+                return null;
+            }
+            int mid = (this.index + this.end) >>> 1;
+            JarCursor suffix = new JarCursor(this.reader, this.baseDir, mid, this.end);
+            this.end = mid;
+            return suffix;
+        }
+    }
+
+    private final class DirectoryCursor implements Cursor {
+
+        final Path rootDir;
+
+        final String baseDir;
+
+        // 栈顶为最深一层目录
+        final Deque<Frame> frames = new ArrayDeque<>();
+
+        DirectoryCursor(Path rootDir, String baseDir) {
+            this.rootDir = rootDir;
+            this.baseDir = baseDir;
+        }
+
+        /**
+         * 列出dir中前缀树匹配的子目录和文件，按名称排序
+         */
+        void enter(Path dir) throws IOException {
+            List<Entry> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    String name = this.rootDir.relativize(child).toString().replace(File.separatorChar, '/');
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        if (resolver.packages.matchDirectory(name) != PackageTrie.Match.NONE) {
+                            entries.add(new Entry(child, true));
+                        }
+                    } else if (Files.isRegularFile(child, LinkOption.NOFOLLOW_LINKS) && resolver.packages.matches(name)) {
+                        entries.add(new Entry(child, false));
+                    }
+                }
+            }
+            if (!entries.isEmpty()) {
+                entries.sort((a, b) -> a.path().getFileName().compareTo(b.path().getFileName()));
+                this.frames.push(new Frame(entries, 0, entries.size()));
+            }
+        }
+
+        @Override
+        public Resource next() throws IOException {
+            while (!this.frames.isEmpty()) {
+                Frame frame = this.frames.peek();
+                if (frame.index >= frame.end) {
+                    this.frames.pop();
+                    continue;
+                }
+                Entry entry = frame.entries.get(frame.index ++);
+                if (entry.directory()) {
+                    enter(entry.path());
+                } else {
+                    return resolver.createFileResource(this.baseDir, entry.path());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Cursor split() {
+            // 越浅的层中尚未遍历的部分在遍历顺序中越靠后，从最浅一层开始找剩余至少两项的层，
+            // 把该层剩余的后一半以及比它更浅的层中剩余的部分拆分出来
+            List<Frame> shallower = new ArrayList<>();
+            for (var it = this.frames.descendingIterator(); it.hasNext(); ) {
+                Frame frame = it.next();
+                if (frame.end - frame.index < 2) {
+                    shallower.add(frame);
+                    continue;
+                }
+                int mid = (frame.index + frame.end) >>> 1;
+                DirectoryCursor suffix = new DirectoryCursor(this.rootDir, this.baseDir);
+                for (Frame f : shallower) {
+                    suffix.frames.push(new Frame(f.entries, f.index, f.end));
+                    f.end = f.index;
+                }
+                suffix.frames.push(new Frame(frame.entries, mid, frame.end));
+                frame.end = mid;
+                return suffix;
+            }
+            return null;
+        }
+    }
+
+    private record Entry(Path path, boolean directory) {
+    }
+
+    /**
+     * 一层目录中待遍历的entries[index, end)
+     */
+    private static final class Frame {
+
+        final List<Entry> entries;
+
+        int index;
+
+        int end;
+
+        Frame(List<Entry> entries, int index, int end) {
+            this.entries = entries;
+            this.index = index;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.annotation.Component;
+import org.example.annotation.Order;
+import org.example.annotation.Primary;
+import org.example.exception.BeanDefinitionException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 按Class缓存的注解元数据，每个Class在JVM中只解析一次。
+ *
+ * 包括合并后的注解（直接标注的以及通过其他注解间接标注的），以及Bean名称、@Order、@Primary、
+ * @PostConstruct和@PreDestroy方法。除合并注解外，其他信息在第一次获取时才计算。
+ */
+public final class AnnotationMetadata {
+
+    private static final ClassValue<AnnotationMetadata> CACHE = new ClassValue<>() {
+        @Override
+        protected AnnotationMetadata computeValue(Class<?> type) {
+            return new AnnotationMetadata(type);
+        }
+    };
+
+    // 同一个注解被重复标注（直接和间接、或通过多个注解间接标注）时的占位符
+    private static final Object DUPLICATE = new Object();
+
+    private final Class<?> target;
+
+    // 注解类型 -> 注解实例或DUPLICATE
+    private final Map<Class<? extends Annotation>, Object> annotations;
+
+    private volatile String beanName;
+
+    private volatile Integer order;
+
+    private volatile Optional<Method> postConstructMethod;
+
+    private volatile Optional<Method> preDestroyMethod;
+
+    private AnnotationMetadata(Class<?> target) {
+        this.target = target;
+        Map<Class<? extends Annotation>, Object> merged = new HashMap<>();
+        Annotation[] annos = target.getAnnotations();
+        for (Annotation anno : annos) {
+            merged.put(anno.annotationType(), anno);
+        }
+        for (Annotation anno : annos) {
+            Class<? extends Annotation> annoType = anno.annotationType();
+            if (!annoType.getPackageName().equals("java.lang.annotation")) {// 仅去重自定义注解
+                of(annoType).annotations.forEach((type, found) -> merged.merge(type, found, (a, b) -> DUPLICATE));
+            }
+        }
+        this.annotations = Map.copyOf(merged);
+    }
+
+    public static AnnotationMetadata of(Class<?> target) {
+        return CACHE.get(target);
+    }
+
+    /**
+     * 查找直接或间接标注的注解，重复标注时抛出BeanDefinitionException
+     */
+    @SuppressWarnings("unchecked")
+    public <A extends Annotation> A findAnnotation(Class<A> annoClass) {
+        Object a = this.annotations.get(annoClass);
+        if (a == DUPLICATE) {
+            throw new BeanDefinitionException("Duplicate @" + annoClass.getSimpleName() + " found on class " + target.getSimpleName());
+        }
+        return (A) a;
+    }
+
+    public String getBeanName() {
+        String name = this.beanName;
+        if (name == null) {
+            name = resolveBeanName();
+            this.beanName = name;
+        }
+        return name;
+    }
+
+    /**
+     * 返回@Order的值，未标注时返回Integer.MAX_VALUE
+     */
+    public int getOrder() {
+        Integer o = this.order;
+        if (o == null) {
+            Order anno = findAnnotation(Order.class);
+            o = anno == null ? Integer.MAX_VALUE : anno.value();
+            this.order = o;
+        }
+        return o;
+    }
+
+    public boolean isPrimary() {
+        return this.target.isAnnotationPresent(Primary.class);
+    }
+
+    public Method getPostConstructMethod() {
+        Optional<Method> m = this.postConstructMethod;
+        if (m == null) {
+            m = Optional.ofNullable(ClassUtils.findAnnotationMethod(this.target, PostConstruct.class));
+            this.postConstructMethod = m;
+        }
+        return m.orElse(null);
+    }
+
+    public Method getPreDestroyMethod() {
+        Optional<Method> m = this.preDestroyMethod;
+        if (m == null) {
+            m = Optional.ofNullable(ClassUtils.findAnnotationMethod(this.target, PreDestroy.class));
+            this.preDestroyMethod = m;
+        }
+        return m.orElse(null);
+    }
+
+    private String resolveBeanName() {
+        Component component = this.target.getAnnotation(Component.class);
+
+        String name = null;
+        if (component != null) {
+            name = component.value();
+        } else {
+            for (Annotation anno : this.target.getAnnotations()) {
+                if (of(anno.annotationType()).findAnnotation(Component.class) != null) {
+                    try {
+                        name = (String) anno.annotationType().getMethod("value").invoke(anno);
+                    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                        throw new BeanDefinitionException("Cannot get annotation value.", e);
+                    }
+                }
+            }
+        }
+
+        if (name == null || name.isEmpty()) {
+            name = this.target.getSimpleName();
+            name = Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,256 @@
+package org.example.utils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 轻量级的class文件解析器，只读取常量池、类名、访问标志以及类上的RuntimeVisibleAnnotations，
+ * 用于在不加载class的前提下判断一个类是否（直接或间接）标注了某个注解。
+ *
+ * class文件格式参考 https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html
+ */
+public class ClassFileReader {
+
+    public static final int ACC_INTERFACE = 0x0200;
+    public static final int ACC_ANNOTATION = 0x2000;
+    public static final int ACC_ENUM = 0x4000;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final ClassLoader classLoader;
+
+    // 注解类名 -> 是否（间接）标注了目标注解，按目标注解分别缓存，并行扫描时会被多个线程同时访问
+    private final Map<String, Map<String, Boolean>> metaAnnotationCache = new ConcurrentHashMap<>();
+
+    public ClassFileReader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 判断class文件对应的类是否直接标注了annoClassName，或者标注的注解上（递归地）标注了annoClassName
+     */
+    public boolean hasAnnotation(ClassMetadata metadata, String annoClassName) {
+        Map<String, Boolean> cache = this.metaAnnotationCache.computeIfAbsent(annoClassName, k -> new ConcurrentHashMap<>());
+        for (String annotation : metadata.annotations()) {
+            if (isAnnotatedWith(annotation, annoClassName, cache, new HashSet<>())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 返回判断过程中读取过class文件的注解类名，即扫描结果所依赖的注解
+     */
+    public Set<String> getReadAnnotations() {
+        Set<String> annotations = new TreeSet<>();
+        this.metaAnnotationCache.values().forEach(cache -> annotations.addAll(cache.keySet()));
+        return annotations;
+    }
+
+    private boolean isAnnotatedWith(String annotation, String annoClassName, Map<String, Boolean> cache, Set<String> visiting) {
+        if (annotation.equals(annoClassName)) {
+            return true;
+        }
+        // 仅递归自定义注解，并防止注解之间相互标注导致死循环
+        if (annotation.startsWith("java.lang.annotation.") || !visiting.add(annotation)) {
+            return false;
+        }
+        Boolean cached = cache.get(annotation);
+        if (cached != null) {
+            return cached;
+        }
+        boolean found = false;
+        ClassMetadata annoMetadata = readClass(annotation);
+        if (annoMetadata != null) {
+            for (String meta : annoMetadata.annotations()) {
+                if (isAnnotatedWith(meta, annoClassName, cache, visiting)) {
+                    found = true;
+                    break;
+                }
+            }
+        }
+        cache.put(annotation, found);
+        return found;
+    }
+
+    /**
+     * 通过ClassLoader读取类的字节码并解析，找不到时返回null
+     */
+    ClassMetadata readClass(String className) {
+        try (InputStream input = this.classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            return input == null ? null : read(input.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static ClassMetadata read(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 从buffer的当前位置开始解析，不改变buffer的position，扫描时直接解析Resource.asByteBuffer()，不再复制一份字节数组
+     */
+    public static ClassMetadata read(ByteBuffer buffer) {
+        ByteBuffer buf = buffer.duplicate();
+        InputStream input = new InputStream() {
+            @Override
+            public int read() {
+                return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (!buf.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, buf.remaining());
+                buf.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public long skip(long n) {
+                int skipped = (int) Math.max(0, Math.min(n, buf.remaining()));
+                buf.position(buf.position() + skipped);
+                return skipped;
+            }
+        };
+        try {
+            return read(new DataInputStream(input));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid class file", e);
+        }
+    }
+
+    static ClassMetadata read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Bad magic number");
+        }
+        in.readUnsignedShort(); // minor_version
+        in.readUnsignedShort(); // major_version
+
+        // 常量池，只保存Utf8和Class两种常量
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNameIndex = new int[count];
+        for (int i = 1; i < count; i ++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF(); // Utf8
+                case 7 -> classNameIndex[i] = in.readUnsignedShort(); // Class
+                case 8, 16, 19, 20 -> in.skipBytes(2); // String, MethodType, Module, Package
+                case 15 -> in.skipBytes(3); // MethodHandle
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipBytes(4); // Integer, Float, Fieldref, Methodref, InterfaceMethodref, NameAndType, Dynamic, InvokeDynamic
+                case 5, 6 -> { // Long, Double占用两个常量池位置
+                    in.skipBytes(8);
+                    i ++;
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        int accessFlags = in.readUnsignedShort();
+        String className = toClassName(utf8[classNameIndex[in.readUnsignedShort()]]);
+        int superIndex = in.readUnsignedShort();
+        String superClassName = superIndex == 0 ? null : toClassName(utf8[classNameIndex[superIndex]]);
+        in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+
+        // 跳过fields和methods
+        for (int n = 0; n < 2; n ++) {
+            int members = in.readUnsignedShort();
+            for (int i = 0; i < members; i ++) {
+                in.skipBytes(6); // access_flags, name_index, descriptor_index
+                skipAttributes(in);
+            }
+        }
+
+        // 类的attributes，查找RuntimeVisibleAnnotations
+        List<String> annotations = new ArrayList<>();
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i ++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                int num = in.readUnsignedShort();
+                for (int j = 0; j < num; j ++) {
+                    annotations.add(readAnnotation(in, utf8));
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+        return new ClassMetadata(className, accessFlags, superClassName, annotations);
+    }
+
+    /**
+     * 读取一个annotation结构，返回注解的类名，并跳过其中的元素值
+     */
+    private static String readAnnotation(DataInputStream in, String[] utf8) throws IOException {
+        String descriptor = utf8[in.readUnsignedShort()];
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i ++) {
+            in.skipBytes(2); // element_name_index
+            skipElementValue(in, utf8);
+        }
+        // 描述符格式为Lorg/example/annotation/Component;
+        return toClassName(descriptor.substring(1, descriptor.length() - 1));
+    }
+
+    private static void skipElementValue(DataInputStream in, String[] utf8) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> in.skipBytes(2);
+            case 'e' -> in.skipBytes(4);
+            case '@' -> readAnnotation(in, utf8);
+            case '[' -> {
+                int num = in.readUnsignedShort();
+                for (int i = 0; i < num; i ++) {
+                    skipElementValue(in, utf8);
+                }
+            }
+            default -> throw new IOException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i ++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * 从class文件中读取的类信息
+     *
+     * @param className 类名，嵌套类形如org.example.Outer$Inner
+     * @param accessFlags 访问标志
+     * @param superClassName 父类名，java.lang.Object的父类为null
+     * @param annotations 类上直接标注的运行时注解类名
+     */
+    public record ClassMetadata(String className, int accessFlags, String superClassName, List<String> annotations) {
+
+        /**
+         * 是否为普通的类（不是接口、注解或枚举）
+         */
+        public boolean isClass() {
+            return (accessFlags & (ACC_INTERFACE | ACC_ANNOTATION | ACC_ENUM)) == 0;
+        }
+    }
+}
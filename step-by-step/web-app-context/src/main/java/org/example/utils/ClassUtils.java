@@ -1,11 +1,9 @@
 package org.example.utils;
 
 import org.example.annotation.Bean;
-import org.example.annotation.Component;
 import org.example.exception.BeanDefinitionException;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
@@ -35,22 +33,11 @@ public class ClassUtils {
      * </code>
      *
      * 如果target类注入了重复的annotation，则报错
+     *
+     * 合并后的注解按Class缓存在AnnotationMetadata中，每个Class只递归解析一次
      */
     public static <A extends Annotation> A findAnnotation(Class<?> target, Class<A> annoClass) {
-        A a = target.getAnnotation(annoClass);
-        for (Annotation anno : target.getAnnotations()) {
-            Class<? extends Annotation> annoType = anno.annotationType();
-            if (!annoType.getPackageName().equals("java.lang.annotation")) {// 仅去重自定义注解
-                A found = findAnnotation(annoType, annoClass);
-                if (found != null) {
-                    if (a != null) {
-                        throw new BeanDefinitionException("Duplicate @" + annoClass.getSimpleName() + " found on class " + target.getSimpleName());
-                    }
-                    a = found;
-                }
-            }
-        }
-        return a;
+        return AnnotationMetadata.of(target).findAnnotation(annoClass);
     }
 
     /**
@@ -67,30 +54,11 @@ public class ClassUtils {
      * 最后，返回name。
      *
      * 这个方法可能是用在Spring框架的上下文中，用于获取Bean的名称。在Spring框架中，@Component注解通常用于标记一个类为Spring管理的Bean，注解的值通常用作Bean的名称。
+     *
+     * 结果缓存在AnnotationMetadata中。
      */
     public static String getBeanName(Class<?> clazz) {
-        Component component = clazz.getAnnotation(Component.class);
-
-        String name = null;
-        if (component != null) {
-            name = component.value();
-        } else {
-            for (Annotation anno : clazz.getAnnotations()) {
-                if (findAnnotation(anno.annotationType(), Component.class) != null) {
-                    try {
-                        name = (String) anno.annotationType().getMethod("value").invoke(anno);
-                    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                        throw new BeanDefinitionException("Cannot get annotation value.", e);
-                    }
-                }
-            }
-        }
-
-        if (name == null) {
-            name = clazz.getSimpleName();
-            name = Character.toLowerCase(name.charAt(0)) + name.substring(1);
-        }
-        return name;
+        return AnnotationMetadata.of(clazz).getBeanName();
     }
 
     public static String getBeanName(Method method) {
@@ -5,11 +5,21 @@ import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import org.example.context.AnnotationConfigApplicationContext;
 import org.example.context.ApplicationContext;
+import org.example.context.ConfigurableApplicationContext;
 import org.example.io.PropertyResolver;
 import org.example.web.utils.WebUtils;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class ContextLoadListener implements ServletContextListener {
 
+    /**
+     * 同一个JVM中的多个Web应用通过相同的parentConfiguration共享父容器（需要框架jar包和父容器的配置类由Servlet容器的公共ClassLoader加载），
+     * key为父容器配置类名，最后一个使用它的Web应用关闭时才关闭父容器
+     */
+    private static final Map<String, SharedContext> SHARED_PARENTS = new HashMap<>();
+
     /**
      * 在Web应用程序初始化时执行，
      * 实现功能：
@@ -29,10 +39,13 @@ public class ContextLoadListener implements ServletContextListener {
         String encoding = pr.getProperty("${web.character.encoding:UTF-8}");
         sc.setRequestCharacterEncoding(encoding);
         sc.setResponseCharacterEncoding(encoding);
-        // 创建应用程序上下文，配置路径从web.xml中的configuration配置项中获取
-        var applicationContext = createApplicationContext(sc.getInitParameter("configuration"), pr);
+        // 创建应用程序上下文，配置路径从web.xml中的configuration配置项中获取，
+        // 配置了parentConfiguration时，先获取（或创建）共享的父容器
+        String parentConfiguration = sc.getInitParameter("parentConfiguration");
+        ConfigurableApplicationContext parent = parentConfiguration == null ? null : acquireParent(parentConfiguration);
+        var applicationContext = createApplicationContext(sc.getInitParameter("configuration"), pr, parent);
         // 注册DispatchServlet
-        WebUtils.registerDispatchServlet(sc, pr);
+        WebUtils.registerDispatchServlet(sc, applicationContext, pr);
         // 将刚刚创建的应用程序上下文存储为applicationContext的属性，以便在整个应用程序中共享。
         sc.setAttribute("applicationContext", applicationContext);
 
@@ -42,13 +55,76 @@ public class ContextLoadListener implements ServletContextListener {
         if (sce.getServletContext().getAttribute("applicationContext") instanceof ApplicationContext applicationContext) {
             applicationContext.close();
         }
+        String parentConfiguration = sce.getServletContext().getInitParameter("parentConfiguration");
+        if (parentConfiguration != null) {
+            releaseParent(parentConfiguration);
+        }
+    }
+
+    /**
+     * 创建Web应用自己的容器，配置类位于WEB-INF中，通过Web应用的ContextClassLoader加载
+     */
+    private ConfigurableApplicationContext createApplicationContext(String configClassName, PropertyResolver propertyResolver,
+                                                                    ConfigurableApplicationContext parent) {
+        Class<?> configClass = loadConfigClass(configClassName, Thread.currentThread().getContextClassLoader());
+        return new AnnotationConfigApplicationContext(configClass, propertyResolver, parent);
     }
 
-    private ApplicationContext createApplicationContext(String configClassName, PropertyResolver propertyResolver) {
+    /**
+     * 创建共享的父容器：父容器可能比创建它的Web应用存活得更久，因此扫描和加载类时把ContextClassLoader临时切换为框架自身的ClassLoader，
+     * 配置只来自环境变量和JVM系统属性，不引用任何一个Web应用的ClassLoader和application.yml
+     */
+    private ConfigurableApplicationContext createSharedParent(String configClassName) {
+        Thread thread = Thread.currentThread();
+        ClassLoader webAppClassLoader = thread.getContextClassLoader();
+        ClassLoader sharedClassLoader = ContextLoadListener.class.getClassLoader();
+        thread.setContextClassLoader(sharedClassLoader);
         try {
-            return new AnnotationConfigApplicationContext(Class.forName(configClassName), propertyResolver);
+            Class<?> configClass = loadConfigClass(configClassName, sharedClassLoader);
+            return new AnnotationConfigApplicationContext(configClass, new PropertyResolver(System.getProperties()), null);
+        } finally {
+            thread.setContextClassLoader(webAppClassLoader);
+        }
+    }
+
+    private Class<?> loadConfigClass(String configClassName, ClassLoader classLoader) {
+        try {
+            return Class.forName(configClassName, true, classLoader);
         } catch (ClassNotFoundException e) {
-            throw new RuntimeException("ApplicationContext配置类不存在");
+            throw new RuntimeException("ApplicationContext配置类不存在：" + configClassName, e);
+        }
+    }
+
+    private ConfigurableApplicationContext acquireParent(String configClassName) {
+        synchronized (SHARED_PARENTS) {
+            SharedContext shared = SHARED_PARENTS.get(configClassName);
+            if (shared == null) {
+                shared = new SharedContext(createSharedParent(configClassName));
+                SHARED_PARENTS.put(configClassName, shared);
+            }
+            shared.references ++;
+            return shared.context;
+        }
+    }
+
+    private void releaseParent(String configClassName) {
+        synchronized (SHARED_PARENTS) {
+            SharedContext shared = SHARED_PARENTS.get(configClassName);
+            if (shared != null && -- shared.references == 0) {
+                SHARED_PARENTS.remove(configClassName);
+                shared.context.close();
+            }
+        }
+    }
+
+    private static class SharedContext {
+
+        final ConfigurableApplicationContext context;
+
+        int references;
+
+        SharedContext(ConfigurableApplicationContext context) {
+            this.context = context;
         }
     }
 }
@@ -3,7 +3,6 @@ package org.example.web.utils;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletRegistration;
 import org.example.context.ApplicationContext;
-import org.example.context.ApplicationContextUtils;
 import org.example.io.PropertyResolver;
 import org.example.utils.YamlUtils;
 import org.example.web.DispatchServlet;
@@ -15,8 +14,9 @@ public class WebUtils {
 
     public static final String CONFIG_YAML_PATH = "/application.yml";
 
-    public static void registerDispatchServlet(ServletContext servletContext, PropertyResolver propertyResolver) {
-        DispatchServlet dispatchServlet = new DispatchServlet(ApplicationContextUtils.getApplicationContext(), propertyResolver);
+    public static void registerDispatchServlet(ServletContext servletContext, ApplicationContext applicationContext,
+                                               PropertyResolver propertyResolver) {
+        DispatchServlet dispatchServlet = new DispatchServlet(applicationContext, propertyResolver);
 
         String servletName = "dispatchServlet";
         // 映射路径
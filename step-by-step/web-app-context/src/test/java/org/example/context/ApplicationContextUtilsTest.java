@@ -0,0 +1,33 @@
+package org.example.context;
+
+import org.example.exception.BeanCreationException;
+import org.example.io.PropertyResolver;
+import org.example.scan.ctorcycle.CtorCycleConfiguration;
+import org.example.scan.parallel.ParallelConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApplicationContextUtilsTest {
+
+    @Test
+    public void publishAfterRefresh() {
+        ApplicationContextUtils.clearApplicationContext(ApplicationContextUtils.getApplicationContext());
+        // 刷新失败的容器不会被发布
+        assertThrows(BeanCreationException.class,
+                () -> new AnnotationConfigApplicationContext(CtorCycleConfiguration.class, new PropertyResolver(new Properties())));
+        assertNull(ApplicationContextUtils.getApplicationContext());
+
+        var ctx = new AnnotationConfigApplicationContext(ParallelConfiguration.class, new PropertyResolver(new Properties()));
+        assertSame(ctx, ApplicationContextUtils.getApplicationContext());
+        try (var other = new AnnotationConfigApplicationContext(ParallelConfiguration.class, new PropertyResolver(new Properties()))) {
+            assertSame(other, ApplicationContextUtils.getApplicationContext());
+            // 关闭另一个容器不会清除当前保存的容器
+            ctx.close();
+            assertSame(other, ApplicationContextUtils.getApplicationContext());
+        }
+        assertNull(ApplicationContextUtils.getApplicationContext());
+    }
+}
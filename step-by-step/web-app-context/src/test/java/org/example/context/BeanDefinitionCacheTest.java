@@ -0,0 +1,110 @@
+package org.example.context;
+
+import org.example.scan.cache.CacheConfiguration;
+import org.example.scan.cache.CachedService;
+import org.example.scan.cache.CachedValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeanDefinitionCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Function<String, Class<?>> classLoader = name -> {
+        try {
+            return Class.forName(name, false, getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    @Test
+    public void roundTrip() throws Exception {
+        Path file = this.tempDir.resolve("cache/definitions.bin");
+        List<BeanDefinition> defs = createDefinitions();
+        new BeanDefinitionCache(file, "fp", annotations -> "annotations:" + annotations).write(defs, List.of("org.example.Service"));
+
+        List<BeanDefinition> loaded = new BeanDefinitionCache(file, "fp", annotations -> "annotations:" + annotations).load(this.classLoader);
+        assertNotNull(loaded);
+        assertEquals(defs.size(), loaded.size());
+        for (int i = 0; i < defs.size(); i ++) {
+            BeanDefinition expected = defs.get(i);
+            BeanDefinition actual = loaded.get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertSame(expected.getBeanClass(), actual.getBeanClass());
+            assertEquals(expected.getConstructor(), actual.getConstructor());
+            assertEquals(expected.getFactoryName(), actual.getFactoryName());
+            assertEquals(expected.getFactoryMethod(), actual.getFactoryMethod());
+            assertEquals(expected.getOrder(), actual.getOrder());
+            assertEquals(expected.isPrimary(), actual.isPrimary());
+            assertEquals(expected.getInitMethodName(), actual.getInitMethodName());
+            assertEquals(expected.getDestroyMethodName(), actual.getDestroyMethodName());
+            assertEquals(expected.getInitMethod(), actual.getInitMethod());
+            assertEquals(expected.getDestroyMethod(), actual.getDestroyMethod());
+        }
+    }
+
+    @Test
+    public void fingerprintChanged() throws Exception {
+        Path file = this.tempDir.resolve("definitions.bin");
+        new BeanDefinitionCache(file, "fp", annotations -> "a").write(createDefinitions(), List.of());
+        assertNull(new BeanDefinitionCache(file, "other", annotations -> "a").load(this.classLoader));
+        // 注解所在位置的指纹变化同样视为未命中
+        assertNull(new BeanDefinitionCache(file, "fp", annotations -> "b").load(this.classLoader));
+        assertNotNull(new BeanDefinitionCache(file, "fp", annotations -> "a").load(this.classLoader));
+    }
+
+    @Test
+    public void corruptedFile() throws Exception {
+        Path file = this.tempDir.resolve("definitions.bin");
+        Function<Collection<String>, String> annotationFingerprint = annotations -> "a";
+        BeanDefinitionCache cache = new BeanDefinitionCache(file, "fp", annotationFingerprint);
+        assertNull(cache.load(this.classLoader));
+
+        cache.write(createDefinitions(), List.of());
+        byte[] bytes = Files.readAllBytes(file);
+        // 截断的文件
+        for (int length : new int[] { 0, 3, 8, bytes.length / 2, bytes.length - 1 }) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertNull(cache.load(this.classLoader));
+        }
+        // 随机内容
+        Files.write(file, "not a cache file".getBytes());
+        assertNull(cache.load(this.classLoader));
+        // 类已经不存在
+        Files.write(file, bytes);
+        assertNull(cache.load(name -> {
+            throw new IllegalStateException(new ClassNotFoundException(name));
+        }));
+        // 写入失败不抛出异常：缓存文件的父目录是一个普通文件
+        Path blocked = this.tempDir.resolve("blocked");
+        Files.writeString(blocked, "");
+        assertDoesNotThrow(() -> new BeanDefinitionCache(blocked.resolve("definitions.bin"), "fp", annotationFingerprint)
+                .write(createDefinitions(), List.of()));
+    }
+
+    private static List<BeanDefinition> createDefinitions() throws Exception {
+        BeanDefinition service = new BeanDefinition("cachedService", CachedService.class,
+                CachedService.class.getConstructor(int.class, String[].class), 3, true, null, null,
+                CachedService.class.getDeclaredMethod("init"), CachedService.class.getDeclaredMethod("destroy"));
+        BeanDefinition configuration = new BeanDefinition("cacheConfiguration", CacheConfiguration.class,
+                CacheConfiguration.class.getConstructor(), Integer.MAX_VALUE, false, null, null, null, null);
+        BeanDefinition value = new BeanDefinition("createValue", CachedValue.class, "cacheConfiguration",
+                CacheConfiguration.class.getDeclaredMethod("createValue", String.class, long.class), 1, false,
+                "start", "stop", null, null);
+        BeanDefinition emptyValue = new BeanDefinition("emptyValue", CachedValue.class, "cacheConfiguration",
+                CacheConfiguration.class.getDeclaredMethod("createValue"), Integer.MAX_VALUE, false, null, null, null, null);
+        return List.of(service, configuration, value, emptyValue);
+    }
+}
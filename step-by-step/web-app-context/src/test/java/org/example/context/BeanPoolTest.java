@@ -0,0 +1,72 @@
+package org.example.context;
+
+import org.example.exception.BeanCreationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeanPoolTest {
+
+    @Test
+    public void reuseReleasedInstances() {
+        AtomicInteger created = new AtomicInteger();
+        BeanPool pool = new BeanPool("worker", 2, () -> "worker-" + created.incrementAndGet());
+        for (int i = 0; i < 10; i ++) {
+            Object bean = pool.borrow();
+            assertEquals("worker-1", bean);
+            assertEquals(1, pool.getMetrics().borrowed());
+            pool.release(bean);
+        }
+        BeanPool.Metrics metrics = pool.getMetrics();
+        assertEquals(1, metrics.created());
+        assertEquals(0, metrics.borrowed());
+        assertEquals(1, metrics.misses());
+        assertEquals(9, metrics.hits());
+        assertEquals(0, metrics.waits());
+
+        List<Object> drained = new ArrayList<>();
+        pool.drain(drained::add);
+        assertIterableEquals(List.of("worker-1"), drained);
+    }
+
+    @Test
+    public void waitWhenAllBorrowed() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        BeanPool pool = new BeanPool("worker", 2, () -> "worker-" + created.incrementAndGet());
+        Object first = pool.borrow();
+        Object second = pool.borrow();
+        assertEquals(Set.of("worker-1", "worker-2"), new HashSet<>(List.of(first, second)));
+
+        // 已借出max个实例，第三次借出需要等待归还
+        CompletableFuture<Object> third = CompletableFuture.supplyAsync(pool::borrow);
+        assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+        pool.release(second);
+        assertSame(second, third.get(5, TimeUnit.SECONDS));
+        assertEquals(2, pool.getMetrics().created());
+        assertEquals(1, pool.getMetrics().waits());
+    }
+
+    @Test
+    public void failedCreationReturnsPermit() {
+        AtomicInteger attempts = new AtomicInteger();
+        BeanPool pool = new BeanPool("worker", 1, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("first attempt fails");
+            }
+            return "worker";
+        });
+        assertThrows(IllegalStateException.class, pool::borrow);
+        assertEquals(0, pool.getMetrics().borrowed());
+        assertEquals("worker", pool.borrow());
+        assertThrows(BeanCreationException.class, () -> new BeanPool("worker", 0, () -> "worker"));
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.context;
+
+import org.example.io.PropertyResolver;
+import org.example.scan.condition.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConditionEvaluatorTest {
+
+    @Test
+    public void missingBeanCandidatesFollowOrder() {
+        try (var ctx = new AnnotationConfigApplicationContext(ConditionConfiguration.class, new PropertyResolver(new Properties()))) {
+            List<Greeter> greeters = ctx.getBeans(Greeter.class);
+            assertEquals(1, greeters.size());
+            assertEquals(FirstDefaultGreeter.class, greeters.get(0).getClass());
+            assertFalse(ctx.containsBean("aSecondDefaultGreeter"));
+        }
+    }
+
+    @Test
+    public void missingBeanComparesWithNonCandidates() {
+        try (var ctx = new AnnotationConfigApplicationContext(ConditionConfiguration.class, new PropertyResolver(new Properties()))) {
+            List<Formatter> formatters = ctx.getBeans(Formatter.class);
+            assertEquals(1, formatters.size());
+            assertEquals(CustomFormatter.class, formatters.get(0).getClass());
+        }
+    }
+
+    @Test
+    public void onClassAcceptsBinaryAndCanonicalNames() {
+        try (var ctx = new AnnotationConfigApplicationContext(ConditionConfiguration.class, new PropertyResolver(new Properties()))) {
+            assertTrue(ctx.containsBean("binaryNameBean"));
+            assertTrue(ctx.containsBean("canonicalNameBean"));
+            assertFalse(ctx.containsBean("missingClassBean"));
+        }
+    }
+}
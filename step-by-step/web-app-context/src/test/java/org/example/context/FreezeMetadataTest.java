@@ -0,0 +1,49 @@
+package org.example.context;
+
+import org.example.io.PropertyResolver;
+import org.example.scan.parallel.LeafBean;
+import org.example.scan.parallel.MiddleBean;
+import org.example.scan.parallel.ParallelConfiguration;
+import org.example.scan.parallel.TopBean;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreezeMetadataTest {
+
+    @Test
+    public void findBeanDefinitionsAfterFreeze() {
+        try (var ctx = new AnnotationConfigApplicationContext(ParallelConfiguration.class, new PropertyResolver(new Properties()))) {
+            List<BeanDefinition> defs = ctx.findBeanDefinitions(Object.class);
+            assertEquals(4, defs.size());
+            // 冻结后返回注册表中缓存的不可变列表
+            assertSame(defs, ctx.findBeanDefinitions(Object.class));
+            assertThrows(UnsupportedOperationException.class, () -> defs.remove(0));
+            assertIterableEquals(List.of(ctx.findBeanDefinition(LeafBean.class)), ctx.findBeanDefinitions(LeafBean.class));
+            assertTrue(ctx.findBeanDefinitions(String.class).isEmpty());
+            assertIterableEquals(List.of(ctx.getBean(MiddleBean.class)), ctx.getBeans(MiddleBean.class));
+            assertSame(ctx.getBean(TopBean.class), ctx.getBeans(TopBean.class).get(0));
+        }
+    }
+
+    @Test
+    public void freezeReport() {
+        try (var ctx = new AnnotationConfigApplicationContext(ParallelConfiguration.class, new PropertyResolver(new Properties()))) {
+            FreezeReport report = ctx.getFreezeReport();
+            assertNotNull(report);
+            assertEquals(4, report.beanCount());
+            assertEquals(4, report.frozenCount());
+            assertTrue(report.estimatedBytesAfter() < report.estimatedBytesBefore(), report.toString());
+            assertTrue(report.toString().contains("estimated"));
+        }
+        Properties props = new Properties();
+        props.setProperty(AnnotationConfigApplicationContext.FREEZE_METADATA_PROPERTY, "false");
+        try (var ctx = new AnnotationConfigApplicationContext(ParallelConfiguration.class, new PropertyResolver(props))) {
+            assertNull(ctx.getFreezeReport());
+            assertEquals(4, ctx.findBeanDefinitions(Object.class).size());
+        }
+    }
+}
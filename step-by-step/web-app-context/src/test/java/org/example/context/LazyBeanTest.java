@@ -0,0 +1,27 @@
+package org.example.context;
+
+import org.example.exception.BeanCreationException;
+import org.example.io.PropertyResolver;
+import org.example.scan.lazyretry.FlakyLazyBean;
+import org.example.scan.lazyretry.LazyRetryConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyBeanTest {
+
+    @Test
+    public void retryAfterFailedCreation() {
+        FlakyLazyBean.ATTEMPTS.set(0);
+        try (var ctx = new AnnotationConfigApplicationContext(LazyRetryConfiguration.class, new PropertyResolver(new Properties()))) {
+            BeanCreationException e = assertThrows(BeanCreationException.class, () -> ctx.getBean(FlakyLazyBean.class));
+            assertFalse(e.getMessage().contains("循环依赖"), e.getMessage());
+            // 第一次创建失败后不应残留在正在创建的Bean中，再次获取时正常创建
+            FlakyLazyBean bean = ctx.getBean(FlakyLazyBean.class);
+            assertSame(bean, ctx.getBean(FlakyLazyBean.class));
+            assertEquals(2, FlakyLazyBean.ATTEMPTS.get());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.context;
+
+import org.example.exception.BeanCreationException;
+import org.example.io.PropertyResolver;
+import org.example.scan.ctorcycle.CtorCycleConfiguration;
+import org.example.scan.cycle.CompositeHandler;
+import org.example.scan.cycle.CycleClientBean;
+import org.example.scan.cycle.CycleConfiguration;
+import org.example.scan.cycle.FirstCycleBean;
+import org.example.scan.cycle.SecondCycleBean;
+import org.example.scan.cycle.SimpleHandler;
+import org.example.scan.parallel.LeafBean;
+import org.example.scan.parallel.MiddleBean;
+import org.example.scan.parallel.ParallelConfiguration;
+import org.example.scan.parallel.TopBean;
+import org.example.scan.protocycle.ProtoCycleConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelRefreshTest {
+
+    @Test
+    public void parallelRefreshCreatesDependenciesFirst() {
+        for (boolean parallel : new boolean[] { false, true }) {
+            try (var ctx = new AnnotationConfigApplicationContext(ParallelConfiguration.class, createPropertyResolver(parallel))) {
+                LeafBean leaf = ctx.getBean(LeafBean.class);
+                MiddleBean middle = ctx.getBean(MiddleBean.class);
+                TopBean top = ctx.getBean(TopBean.class);
+                assertSame(leaf, middle.leaf);
+                assertSame(middle, top.middle);
+                assertSame(leaf, top.leaf);
+            }
+        }
+    }
+
+    @Test
+    public void parallelRefreshWithInjectionCycle() {
+        for (boolean parallel : new boolean[] { false, true }) {
+            try (var ctx = new AnnotationConfigApplicationContext(CycleConfiguration.class, createPropertyResolver(parallel))) {
+                FirstCycleBean first = ctx.getBean(FirstCycleBean.class);
+                SecondCycleBean second = ctx.getBean(SecondCycleBean.class);
+                // 字段注入的环只去掉环上的边，两个Bean仍然互相注入
+                assertSame(second, first.second);
+                assertSame(first, second.first);
+                // 构造方法依赖环上的Bean，不受去掉的边影响
+                CycleClientBean client = ctx.getBean(CycleClientBean.class);
+                assertSame(first, client.first);
+                assertSame(second, client.second);
+                // 集合注入不包括注入点所在的Bean自身
+                CompositeHandler composite = ctx.getBean(CompositeHandler.class);
+                assertIterableEquals(List.of(ctx.getBean(SimpleHandler.class)), composite.handlers);
+            }
+        }
+    }
+
+    @Test
+    public void parallelRefreshWithConstructorCycle() {
+        for (boolean parallel : new boolean[] { false, true }) {
+            assertThrows(BeanCreationException.class,
+                    () -> new AnnotationConfigApplicationContext(CtorCycleConfiguration.class, createPropertyResolver(parallel)));
+        }
+    }
+
+    @Test
+    public void parallelRefreshWithCycleThroughPrototype() {
+        for (boolean parallel : new boolean[] { false, true }) {
+            // 并行创建时不能各自持有一个单例的锁互相等待，而应与串行创建一样报告循环依赖
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(BeanCreationException.class,
+                    () -> new AnnotationConfigApplicationContext(ProtoCycleConfiguration.class, createPropertyResolver(parallel))));
+        }
+    }
+
+    static PropertyResolver createPropertyResolver(boolean parallel) {
+        Properties props = new Properties();
+        props.setProperty(AnnotationConfigApplicationContext.PARALLEL_REFRESH_PROPERTY, Boolean.toString(parallel));
+        props.setProperty(AnnotationConfigApplicationContext.PARALLELISM_PROPERTY, "4");
+        return new PropertyResolver(props);
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentIndexProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void fullCompile() throws IOException {
+        Path src = this.tempDir.resolve("src");
+        Path out = this.tempDir.resolve("out");
+        compile(out, writeSources(src, Map.of(
+                "fixture/AppConfig.java", """
+                        package fixture;
+                        import org.example.annotation.*;
+                        @Configuration
+                        public class AppConfig {
+                            @Bean @Primary
+                            public String greeting(@Value("${greeting}") String text, int[] counts) { return text; }
+                            @Bean("emptyGreeting") @Order(5)
+                            public String greeting() { return ""; }
+                        }
+                        """,
+                "fixture/Plain.java", """
+                        package fixture;
+                        public class Plain { }
+                        """)));
+
+        Map<String, ComponentIndex.Entry> entries = readIndex(out);
+        assertEquals(3, entries.size());
+        assertEquals(ComponentIndex.KIND_CONFIGURATION, entries.get("appConfig").kind());
+        ComponentIndex.Entry greeting = entries.get("greeting");
+        assertEquals("greeting(java.lang.String,[I)", greeting.methodSignature());
+        assertTrue(greeting.primary());
+        ComponentIndex.Entry empty = entries.get("emptyGreeting");
+        assertEquals("greeting()", empty.methodSignature());
+        assertEquals(5, empty.order());
+    }
+
+    @Test
+    public void incrementalCompileMergesExistingIndex() throws IOException {
+        Path src = this.tempDir.resolve("src");
+        Path out = this.tempDir.resolve("out");
+        compile(out, writeSources(src, Map.of(
+                "fixture/Kept.java", """
+                        package fixture;
+                        import org.example.annotation.Component;
+                        @Component
+                        public class Kept {
+                            @Component
+                            public static class Inner { }
+                        }
+                        """,
+                "fixture/Odd$Name.java", """
+                        package fixture;
+                        import org.example.annotation.Component;
+                        @Component
+                        public class Odd$Name { }
+                        """,
+                "fixture/Changed.java", """
+                        package fixture;
+                        import org.example.annotation.Component;
+                        @Component("before")
+                        public class Changed { }
+                        """,
+                "fixture/Removed.java", """
+                        package fixture;
+                        import org.example.annotation.Component;
+                        @Component
+                        public class Removed { }
+                        """)));
+        assertEquals(List.of("before", "inner", "kept", "odd$Name", "removed"), readIndex(out).keySet().stream().sorted().toList());
+
+        // 增量编译只重新编译Changed，Removed的源码和class文件都已删除
+        Files.delete(src.resolve("fixture/Removed.java"));
+        Files.delete(out.resolve("fixture/Removed.class"));
+        compile(out, writeSources(src, Map.of(
+                "fixture/Changed.java", """
+                        package fixture;
+                        import org.example.annotation.Component;
+                        @Component("after")
+                        public class Changed { }
+                        """)));
+
+        Map<String, ComponentIndex.Entry> entries = readIndex(out);
+        // 嵌套类和类名中带$的顶层类都按二进制名称找到，记录保留
+        assertEquals(List.of("after", "inner", "kept", "odd$Name"), entries.keySet().stream().sorted().toList());
+        assertEquals("fixture.Kept$Inner", entries.get("inner").className());
+        assertEquals("fixture.Odd$Name", entries.get("odd$Name").className());
+        assertEquals("fixture.Changed", entries.get("after").className());
+    }
+
+    private static List<Path> writeSources(Path src, Map<String, String> sources) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = src.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * 以out中已编译的类和当前classpath为classpath，编译sources到out，与构建工具的增量编译一致
+     */
+    private static void compile(Path out, List<Path> sources) throws IOException {
+        Files.createDirectories(out);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            List<String> options = List.of("-d", out.toString(),
+                    "-cp", out + java.io.File.pathSeparator + System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null,
+                    fileManager.getJavaFileObjectsFromPaths(sources));
+            task.setProcessors(List.of(new ComponentIndexProcessor()));
+            assertTrue(task.call());
+        }
+    }
+
+    /**
+     * 读取生成的索引，key为Bean名称
+     */
+    private static Map<String, ComponentIndex.Entry> readIndex(Path out) throws IOException {
+        try (InputStream input = Files.newInputStream(out.resolve(ComponentIndex.LOCATION))) {
+            return ComponentIndex.read(input).stream()
+                    .collect(Collectors.toMap(ComponentIndex.Entry::beanName, entry -> entry));
+        }
+    }
+}
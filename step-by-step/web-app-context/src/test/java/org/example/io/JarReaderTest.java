@@ -0,0 +1,170 @@
+package org.example.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JarReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readStoredAndDeflated() throws IOException {
+        byte[] hello = "Hello, summer!".getBytes(StandardCharsets.UTF_8);
+        // 不小于MAP_THRESHOLD的未压缩文件通过映射读取
+        byte[] large = randomBytes(JarReader.MAP_THRESHOLD + 1000);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("org/example/hello.txt", hello);
+        entries.put("org/example/large.bin", large);
+        for (int method : new int[] { ZipEntry.STORED, ZipEntry.DEFLATED }) {
+            Path jar = writeJar("test-" + method + ".jar", new byte[0], entries, method);
+            try (JarReader reader = JarReader.open(jar)) {
+                assertIterableEquals(List.of("org/example/hello.txt", "org/example/large.bin"), reader.list("org/example/"));
+                assertEquals(hello.length, reader.size("org/example/hello.txt"));
+                assertEquals(large.length, reader.size("org/example/large.bin"));
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    assertArrayEquals(entry.getValue(), toBytes(reader.map(entry.getKey())));
+                    assertArrayEquals(entry.getValue(), readChannel(reader, entry.getKey()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readAfterClose() throws IOException {
+        byte[] hello = "Hello, summer!".getBytes(StandardCharsets.UTF_8);
+        Path jar = writeJar("test.jar", new byte[0], Map.of("org/example/hello.txt", hello), ZipEntry.DEFLATED);
+        JarReader reader = JarReader.open(jar);
+        reader.close();
+        assertArrayEquals(hello, toBytes(reader.map("org/example/hello.txt")));
+        assertArrayEquals(hello, readChannel(reader, "org/example/hello.txt"));
+    }
+
+    @Test
+    public void listByPrefix() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (String name : List.of("org/example/b/B.class", "org/example/A.class", "org/examples/C.class", "META-INF/MANIFEST.MF")) {
+            entries.put(name, name.getBytes(StandardCharsets.UTF_8));
+        }
+        Path jar = writeJar("test.jar", new byte[0], entries, ZipEntry.DEFLATED);
+        try (JarReader reader = JarReader.open(jar)) {
+            // 按名称排序，不包括前缀相同的兄弟包
+            assertIterableEquals(List.of("org/example/A.class", "org/example/b/B.class"), reader.list("org/example/"));
+            assertIterableEquals(List.of("org/examples/C.class"), reader.list("org/examples/"));
+            assertTrue(reader.list("com/").isEmpty());
+            assertThrows(FileNotFoundException.class, () -> reader.map("org/example/Missing.class"));
+        }
+    }
+
+    @Test
+    public void readZip64() throws IOException {
+        // 文件数超过65535时，ZipOutputStream写入ZIP64 EOCD记录
+        int count = 0x10000 + 10;
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i ++) {
+            entries.put(String.format("org/example/zip64/F%05d.txt", i), Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+        }
+        Path jar = writeJar("zip64.jar", new byte[0], entries, ZipEntry.STORED);
+        try (JarReader reader = JarReader.open(jar)) {
+            assertEquals(count, reader.list("org/example/zip64/").size());
+            assertArrayEquals("0".getBytes(StandardCharsets.UTF_8), toBytes(reader.map("org/example/zip64/F00000.txt")));
+            String last = String.format("org/example/zip64/F%05d.txt", count - 1);
+            assertArrayEquals(Integer.toString(count - 1).getBytes(StandardCharsets.UTF_8), readChannel(reader, last));
+        }
+    }
+
+    @Test
+    public void readWithPrependedStub() throws IOException {
+        // 例如可执行jar前面的启动脚本，中央目录中记录的位置不包括它
+        byte[] stub = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8);
+        byte[] hello = "Hello, summer!".getBytes(StandardCharsets.UTF_8);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("org/example/hello.txt", hello);
+        entries.put("org/example/World.class", randomBytes(3000));
+        for (int method : new int[] { ZipEntry.STORED, ZipEntry.DEFLATED }) {
+            Path jar = writeJar("stub-" + method + ".jar", stub, entries, method);
+            try (JarReader reader = JarReader.open(jar)) {
+                assertIterableEquals(List.of("org/example/World.class", "org/example/hello.txt"), reader.list("org/example/"));
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    assertArrayEquals(entry.getValue(), toBytes(reader.map(entry.getKey())));
+                    assertArrayEquals(entry.getValue(), readChannel(reader, entry.getKey()));
+                }
+            }
+        }
+    }
+
+    private Path writeJar(String fileName, byte[] stub, Map<String, byte[]> entries, int method) throws IOException {
+        Path jar = this.tempDir.resolve(fileName);
+        try (OutputStream output = Files.newOutputStream(jar)) {
+            output.write(stub);
+            // ZipOutputStream从0开始计算位置，不包括之前写入的stub
+            ZipOutputStream zip = new ZipOutputStream(output);
+            List<String> dirs = new ArrayList<>();
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                String dir = entry.getKey().substring(0, entry.getKey().lastIndexOf('/') + 1);
+                if (!dirs.contains(dir)) {
+                    // 目录不会被列出
+                    dirs.add(dir);
+                    zip.putNextEntry(newEntry(dir, new byte[0], ZipEntry.STORED));
+                    zip.closeEntry();
+                }
+                zip.putNextEntry(newEntry(entry.getKey(), entry.getValue(), method));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+            zip.finish();
+        }
+        return jar;
+    }
+
+    private static ZipEntry newEntry(String name, byte[] data, int method) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        return entry;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    private static byte[] readChannel(JarReader reader, String name) throws IOException {
+        try (InputStream input = Channels.newInputStream(reader.openChannel(name))) {
+            return input.readAllBytes();
+        }
+    }
+}
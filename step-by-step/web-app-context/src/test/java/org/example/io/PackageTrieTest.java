@@ -0,0 +1,59 @@
+package org.example.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackageTrieTest {
+
+    @Test
+    public void nestedPackages() {
+        // 只保留外层的包，与添加顺序无关
+        PackageTrie trie = new PackageTrie(List.of("com.acme.web", "com.acme", "com.acme.web.api"));
+        assertIterableEquals(List.of("com/acme"), trie.getPackagePaths());
+        assertEquals("com/acme/", trie.getCommonPrefix());
+
+        assertEquals(PackageTrie.Match.PREFIX, trie.matchDirectory(""));
+        assertEquals(PackageTrie.Match.PREFIX, trie.matchDirectory("com"));
+        assertEquals(PackageTrie.Match.INSIDE, trie.matchDirectory("com/acme"));
+        assertEquals(PackageTrie.Match.INSIDE, trie.matchDirectory("com/acme/web/api"));
+        assertEquals(PackageTrie.Match.NONE, trie.matchDirectory("com/acmex"));
+
+        assertTrue(trie.matches("com/acme/Hello.class"));
+        assertTrue(trie.matches("com/acme/web/api/Hello.class"));
+        assertFalse(trie.matches("com/Hello.class"));
+        assertFalse(trie.matches("com/acmex/Hello.class"));
+    }
+
+    @Test
+    public void siblingPackages() {
+        PackageTrie trie = new PackageTrie(List.of("org.example.web", "org.example.context", "org.examples"));
+        assertIterableEquals(List.of("org/example/context", "org/example/web", "org/examples"), trie.getPackagePaths());
+        assertEquals("org/", trie.getCommonPrefix());
+
+        assertEquals(PackageTrie.Match.PREFIX, trie.matchDirectory("org"));
+        assertEquals(PackageTrie.Match.PREFIX, trie.matchDirectory("org/example"));
+        assertEquals(PackageTrie.Match.INSIDE, trie.matchDirectory("org/example/web"));
+        assertEquals(PackageTrie.Match.INSIDE, trie.matchDirectory("org/examples/util"));
+        assertEquals(PackageTrie.Match.NONE, trie.matchDirectory("org/example/io"));
+
+        assertTrue(trie.matches("org/example/web/Controller.class"));
+        assertTrue(trie.matches("org/example/context/sub/Bean.class"));
+        assertTrue(trie.matches("org/examples/Util.class"));
+        // 上级包中的文件不匹配
+        assertFalse(trie.matches("org/example/Hello.class"));
+        assertFalse(trie.matches("org/example/io/Resource.class"));
+    }
+
+    @Test
+    public void defaultPackage() {
+        PackageTrie trie = new PackageTrie(List.of("", "org.example"));
+        assertIterableEquals(List.of(""), trie.getPackagePaths());
+        assertEquals("", trie.getCommonPrefix());
+        assertEquals(PackageTrie.Match.INSIDE, trie.matchDirectory(""));
+        assertTrue(trie.matches("Hello.class"));
+        assertTrue(trie.matches("org/example/Hello.class"));
+    }
+}
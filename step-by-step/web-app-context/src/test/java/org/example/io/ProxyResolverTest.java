@@ -0,0 +1,134 @@
+package org.example.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProxyResolverTest {
+
+    interface Worker {
+
+        int id();
+
+        void fail();
+
+        void await(CountDownLatch started, CountDownLatch done) throws InterruptedException;
+    }
+
+    static class SimpleWorker implements Worker {
+
+        final int id;
+
+        SimpleWorker(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int id() {
+            return this.id;
+        }
+
+        @Override
+        public void fail() {
+            throw new IllegalStateException("worker " + this.id);
+        }
+
+        @Override
+        public void await(CountDownLatch started, CountDownLatch done) throws InterruptedException {
+            started.countDown();
+            done.await();
+        }
+    }
+
+    /**
+     * 记录借还次数的简单对象池
+     */
+    static class CountingPool {
+
+        final Queue<Worker> idle = new ConcurrentLinkedQueue<>();
+
+        final AtomicInteger created = new AtomicInteger();
+
+        final AtomicInteger borrowed = new AtomicInteger();
+
+        final AtomicInteger released = new AtomicInteger();
+
+        final Supplier<Worker> borrow = () -> {
+            this.borrowed.incrementAndGet();
+            Worker worker = this.idle.poll();
+            return worker != null ? worker : new SimpleWorker(this.created.incrementAndGet());
+        };
+
+        void release(Object worker) {
+            this.released.incrementAndGet();
+            this.idle.offer((Worker) worker);
+        }
+    }
+
+    @Test
+    public void pooledProxyBorrowsAndReleasesPerCall() {
+        CountingPool pool = new CountingPool();
+        Worker proxy = createPooledProxy(pool);
+        for (int i = 1; i <= 5; i ++) {
+            // 依次调用时借出的总是同一个归还后的实例
+            assertEquals(1, proxy.id());
+            assertEquals(i, pool.borrowed.get());
+            assertEquals(i, pool.released.get());
+        }
+        assertEquals(1, pool.created.get());
+
+        // 目标方法抛出异常时，抛出原始异常，实例仍然归还
+        IllegalStateException e = assertThrows(IllegalStateException.class, proxy::fail);
+        assertEquals("worker 1", e.getMessage());
+        assertEquals(6, pool.borrowed.get());
+        assertEquals(6, pool.released.get());
+        assertEquals(1, pool.idle.size());
+    }
+
+    @Test
+    public void pooledProxyUsesOneInstancePerConcurrentCall() throws Exception {
+        CountingPool pool = new CountingPool();
+        Worker proxy = createPooledProxy(pool);
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i ++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    proxy.await(started, done);
+                } catch (InterruptedException ignore) {
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        started.await();
+        // 同时进行的3个调用各自借出一个实例，都尚未归还
+        assertEquals(3, pool.created.get());
+        assertEquals(3, pool.borrowed.get());
+        assertEquals(0, pool.released.get());
+        done.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(3, pool.released.get());
+        assertEquals(3, pool.idle.size());
+    }
+
+    /**
+     * 以JDK动态代理承载PooledInvocationHandler，与ByteBuddy生成的代理类一样，把每次方法调用交给handler
+     */
+    private static Worker createPooledProxy(CountingPool pool) {
+        return (Worker) Proxy.newProxyInstance(Worker.class.getClassLoader(), new Class<?>[] { Worker.class },
+                new ProxyResolver.PooledInvocationHandler(pool.borrow, pool::release));
+    }
+}
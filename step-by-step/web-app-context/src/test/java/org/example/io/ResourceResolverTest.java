@@ -0,0 +1,162 @@
+package org.example.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceResolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void scanSerialAndParallel() throws Exception {
+        List<String> packages = List.of("org.example.fixture.a", "org.example.fixture.b", "org.example.fixture.a.nested");
+        Function<Resource, String> mapper = res -> res.name().endsWith(".class") ? res.name() : null;
+        withClassPath(() -> {
+            List<String> serial = new ResourceResolver(packages, null).scan(mapper);
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                for (int i = 0; i < 5; i ++) {
+                    assertIterableEquals(serial, new ResourceResolver(packages, null).scan(mapper, pool));
+                }
+            } finally {
+                pool.shutdown();
+            }
+            // 目录中的文件在前，jar包中同名的文件被去重
+            assertEquals("org/example/fixture/a/A000.class", serial.get(0));
+            assertEquals(serial.size(), serial.stream().distinct().count());
+            assertTrue(serial.contains("org/example/fixture/b/B099.class"));
+            assertTrue(serial.contains("org/example/fixture/a/nested/N019.class"));
+            assertFalse(serial.stream().anyMatch(name -> name.startsWith("org/example/fixture/c/")));
+            assertFalse(serial.stream().anyMatch(name -> name.endsWith(".txt")));
+        });
+    }
+
+    @Test
+    public void streamSplitOrder() throws Exception {
+        List<String> packages = List.of("org.example.fixture.a", "org.example.fixture.b");
+        withClassPath(() -> {
+            ResourceResolver rr = new ResourceResolver(packages, null);
+            List<String> sequential;
+            try (Stream<Resource> stream = rr.stream()) {
+                sequential = stream.map(Resource::name).toList();
+            }
+            // 不对多个classpath根中的同名文件去重
+            assertEquals(2, sequential.stream().filter("org/example/fixture/a/A000.class"::equals).count());
+
+            // 拆分出的前一部分加上剩余部分，与顺序遍历的结果一致
+            for (int depth = 1; depth <= 6; depth ++) {
+                List<String> split = new ArrayList<>();
+                try (Stream<Resource> stream = rr.stream()) {
+                    collectSplit(stream.spliterator(), depth, split);
+                }
+                assertIterableEquals(sequential, split);
+            }
+            try (Stream<Resource> stream = rr.stream()) {
+                assertIterableEquals(sequential, stream.parallel().map(Resource::name).toList());
+            }
+        });
+    }
+
+    @Test
+    public void fingerprintFollowsFileStamps() throws Exception {
+        withClassPath(() -> {
+            ResourceResolver rr = new ResourceResolver(List.of("org.example.fixture.a"), null);
+            String fingerprint = rr.fingerprint();
+            assertEquals(fingerprint, rr.fingerprint());
+
+            // 原地修改文件不会改变目录的修改时间，指纹仍然要变化
+            Path file = this.tempDir.resolve("classes/org/example/fixture/a/nested/N000.class");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+            String touched = rr.fingerprint();
+            assertNotEquals(fingerprint, touched);
+
+            // 不在扫描范围内的文件不影响指纹
+            Path other = this.tempDir.resolve("classes/org/example/fixture/c/C000.class");
+            Files.setLastModifiedTime(other, FileTime.fromMillis(Files.getLastModifiedTime(other).toMillis() + 2000));
+            assertEquals(touched, rr.fingerprint());
+        });
+    }
+
+    private static void collectSplit(Spliterator<Resource> spliterator, int depth, List<String> names) {
+        Spliterator<Resource> prefix = depth > 0 ? spliterator.trySplit() : null;
+        if (prefix != null) {
+            collectSplit(prefix, depth - 1, names);
+            collectSplit(spliterator, depth - 1, names);
+        } else {
+            spliterator.forEachRemaining(res -> names.add(res.name()));
+        }
+    }
+
+    /**
+     * 以一个目录和一个jar包作为ContextClassLoader的classpath执行action
+     */
+    private void withClassPath(ThrowingRunnable action) throws Exception {
+        Path dir = this.tempDir.resolve("classes");
+        List<String> dirFiles = new ArrayList<>();
+        for (int i = 0; i < 30; i ++) {
+            dirFiles.add(String.format("org/example/fixture/a/A%03d.class", i));
+        }
+        for (int i = 0; i < 20; i ++) {
+            dirFiles.add(String.format("org/example/fixture/a/nested/N%03d.class", i));
+        }
+        dirFiles.add("org/example/fixture/a/readme.txt");
+        dirFiles.add("org/example/fixture/c/C000.class");
+        for (String name : dirFiles) {
+            Path file = dir.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, name);
+        }
+
+        Path jar = this.tempDir.resolve("fixture.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            List<String> jarFiles = new ArrayList<>();
+            for (int i = 0; i < 10; i ++) {
+                jarFiles.add(String.format("org/example/fixture/a/A%03d.class", i));
+            }
+            for (int i = 0; i < 100; i ++) {
+                jarFiles.add(String.format("org/example/fixture/b/B%03d.class", i));
+            }
+            jarFiles.add("org/example/fixture/c/C001.class");
+            for (String dirName : List.of("org/example/fixture/a/", "org/example/fixture/b/", "org/example/fixture/c/")) {
+                zip.putNextEntry(new ZipEntry(dirName));
+                zip.closeEntry();
+            }
+            for (String name : jarFiles) {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(name.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL(), jar.toUri().toURL() }, null)) {
+            thread.setContextClassLoader(loader);
+            action.run();
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.scan.cache;
+
+import org.example.annotation.Bean;
+import org.example.annotation.Configuration;
+import org.example.annotation.Value;
+
+@Configuration
+public class CacheConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    CachedValue createValue(@Value("${cache.name}") String name, @Value("${cache.size}") long size) {
+        return new CachedValue();
+    }
+
+    @Bean
+    CachedValue createValue() {
+        return new CachedValue();
+    }
+}
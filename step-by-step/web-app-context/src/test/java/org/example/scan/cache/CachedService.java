@@ -0,0 +1,21 @@
+package org.example.scan.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.annotation.Component;
+import org.example.annotation.Value;
+
+@Component
+public class CachedService {
+
+    public CachedService(@Value("${cache.size}") int size, @Value("${cache.names}") String[] names) {
+    }
+
+    @PostConstruct
+    void init() {
+    }
+
+    @PreDestroy
+    void destroy() {
+    }
+}
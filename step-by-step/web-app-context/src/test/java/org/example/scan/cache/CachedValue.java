@@ -0,0 +1,10 @@
+package org.example.scan.cache;
+
+public class CachedValue {
+
+    public void start() {
+    }
+
+    public void stop() {
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.scan.classfile;
+
+/**
+ * 常量池中有Long和Double常量（各占两个位置），位于注解的常量之前
+ */
+@Service(value = "constants")
+public class ConstantsService {
+
+    public static final long MAX_SIZE = 9_876_543_210L;
+
+    public static final double RATIO = 0.618;
+
+    public double scale(long size) {
+        return size * RATIO + 1_234_567_890_123L + 2.718281828;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.scan.classfile;
+
+import java.lang.annotation.*;
+
+/**
+ * 与@Service相互标注，判断时不能死循环
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Service
+public @interface Mutual {
+
+}
@@ -0,0 +1,9 @@
+package org.example.scan.classfile;
+
+/**
+ * 只标注了@Mutual，经@Mutual -> @Service -> @Stereotype 间接标注了@Component
+ */
+@Mutual
+public class MutualOnly {
+
+}
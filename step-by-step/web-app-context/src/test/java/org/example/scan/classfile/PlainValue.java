@@ -0,0 +1,9 @@
+package org.example.scan.classfile;
+
+@Deprecated
+public class PlainValue {
+
+    public static final long ID = 1L << 40;
+
+    public final double value = Math.PI;
+}
@@ -0,0 +1,16 @@
+package org.example.scan.classfile;
+
+import java.lang.annotation.*;
+
+/**
+ * 经过两层注解才标注了@Component
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Stereotype
+@Mutual
+public @interface Service {
+
+    String value() default "";
+}
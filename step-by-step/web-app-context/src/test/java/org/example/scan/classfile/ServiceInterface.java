@@ -0,0 +1,9 @@
+package org.example.scan.classfile;
+
+/**
+ * 接口即使间接标注了@Component也不是候选类
+ */
+@Service
+public interface ServiceInterface {
+
+}
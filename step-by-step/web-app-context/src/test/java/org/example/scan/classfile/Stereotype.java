@@ -0,0 +1,14 @@
+package org.example.scan.classfile;
+
+import org.example.annotation.Component;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Component
+public @interface Stereotype {
+
+    String value() default "";
+}
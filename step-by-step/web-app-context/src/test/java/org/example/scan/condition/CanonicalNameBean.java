@@ -0,0 +1,10 @@
+package org.example.scan.condition;
+
+import org.example.annotation.Component;
+import org.example.annotation.ConditionalOnClass;
+
+@Component
+@ConditionalOnClass({ "org.example.scan.condition.Outer.Inner", "java.util.Map.Entry" })
+public class CanonicalNameBean {
+
+}
@@ -0,0 +1,10 @@
+package org.example.scan.condition;
+
+import org.example.annotation.Component;
+import org.example.annotation.Order;
+
+@Order(10)
+@Component
+public class CustomFormatter implements Formatter {
+
+}
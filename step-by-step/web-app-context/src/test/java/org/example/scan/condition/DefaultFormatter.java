@@ -0,0 +1,15 @@
+package org.example.scan.condition;
+
+import org.example.annotation.Component;
+import org.example.annotation.ConditionalOnMissingBean;
+import org.example.annotation.Order;
+
+/**
+ * @Order比CustomFormatter小，但不是候选的Bean总是参与比较，因此被移除
+ */
+@Order(1)
+@Component
+@ConditionalOnMissingBean(Formatter.class)
+public class DefaultFormatter implements Formatter {
+
+}
@@ -0,0 +1,15 @@
+package org.example.scan.condition;
+
+import org.example.annotation.Component;
+import org.example.annotation.ConditionalOnMissingBean;
+import org.example.annotation.Order;
+
+/**
+ * @Order较小，先判断，此时没有其他Greeter，保留
+ */
+@Order(1)
+@Component
+@ConditionalOnMissingBean(Greeter.class)
+public class FirstDefaultGreeter implements Greeter {
+
+}
@@ -0,0 +1,5 @@
+package org.example.scan.condition;
+
+public interface Formatter {
+
+}
@@ -0,0 +1,10 @@
+package org.example.scan.condition;
+
+import org.example.annotation.Component;
+import org.example.annotation.ConditionalOnClass;
+
+@Component
+@ConditionalOnClass("org.example.scan.condition.Outer.Missing")
+public class MissingClassBean {
+
+}
@@ -0,0 +1,8 @@
+package org.example.scan.condition;
+
+public class Outer {
+
+    public static class Inner {
+
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.scan.condition;
+
+import org.example.annotation.Component;
+import org.example.annotation.ConditionalOnMissingBean;
+import org.example.annotation.Order;
+
+/**
+ * 名称排在FirstDefaultGreeter之前，但@Order较大，后判断，因为已保留FirstDefaultGreeter而被移除
+ */
+@Order(2)
+@Component("aSecondDefaultGreeter")
+@ConditionalOnMissingBean(Greeter.class)
+public class SecondDefaultGreeter implements Greeter {
+
+}
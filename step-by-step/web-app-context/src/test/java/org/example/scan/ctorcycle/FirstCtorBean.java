@@ -0,0 +1,11 @@
+package org.example.scan.ctorcycle;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+@Component
+public class FirstCtorBean {
+
+    public FirstCtorBean(@Autowired SecondCtorBean second) {
+    }
+}
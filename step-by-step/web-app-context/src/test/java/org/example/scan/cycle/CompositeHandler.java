@@ -0,0 +1,16 @@
+package org.example.scan.cycle;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+import java.util.List;
+
+/**
+ * 自身也是Handler，注入的List<Handler>不应包含自己
+ */
+@Component
+public class CompositeHandler implements Handler {
+
+    @Autowired
+    public List<Handler> handlers;
+}
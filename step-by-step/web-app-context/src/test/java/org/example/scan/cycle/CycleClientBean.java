@@ -0,0 +1,20 @@
+package org.example.scan.cycle;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+/**
+ * 通过构造方法依赖环上的Bean，创建时环上的Bean必须已经创建
+ */
+@Component
+public class CycleClientBean {
+
+    public final FirstCycleBean first;
+
+    public final SecondCycleBean second;
+
+    public CycleClientBean(@Autowired FirstCycleBean first, @Autowired SecondCycleBean second) {
+        this.first = first;
+        this.second = second;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.scan.cycle;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+@Component
+public class FirstCycleBean {
+
+    @Autowired
+    public SecondCycleBean second;
+}
@@ -0,0 +1,5 @@
+package org.example.scan.cycle;
+
+public interface Handler {
+
+}
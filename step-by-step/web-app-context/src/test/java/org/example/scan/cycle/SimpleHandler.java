@@ -0,0 +1,8 @@
+package org.example.scan.cycle;
+
+import org.example.annotation.Component;
+
+@Component
+public class SimpleHandler implements Handler {
+
+}
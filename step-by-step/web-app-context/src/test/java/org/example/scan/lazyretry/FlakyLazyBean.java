@@ -0,0 +1,22 @@
+package org.example.scan.lazyretry;
+
+import org.example.annotation.Component;
+import org.example.annotation.Lazy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 第一次创建时构造方法抛出异常，之后可以正常创建
+ */
+@Lazy
+@Component
+public class FlakyLazyBean {
+
+    public static final AtomicInteger ATTEMPTS = new AtomicInteger();
+
+    public FlakyLazyBean() {
+        if (ATTEMPTS.incrementAndGet() == 1) {
+            throw new IllegalStateException("first attempt fails");
+        }
+    }
+}
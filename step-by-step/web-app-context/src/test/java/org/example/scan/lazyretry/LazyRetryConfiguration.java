@@ -0,0 +1,10 @@
+package org.example.scan.lazyretry;
+
+import org.example.annotation.ComponentScan;
+import org.example.annotation.Configuration;
+
+@Configuration
+@ComponentScan
+public class LazyRetryConfiguration {
+
+}
@@ -0,0 +1,8 @@
+package org.example.scan.parallel;
+
+import org.example.annotation.Component;
+
+@Component
+public class LeafBean {
+
+}
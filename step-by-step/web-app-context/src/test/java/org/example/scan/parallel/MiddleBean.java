@@ -0,0 +1,14 @@
+package org.example.scan.parallel;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+@Component
+public class MiddleBean {
+
+    public final LeafBean leaf;
+
+    public MiddleBean(@Autowired LeafBean leaf) {
+        this.leaf = leaf;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.scan.parallel;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+@Component
+public class TopBean {
+
+    public final MiddleBean middle;
+
+    public final LeafBean leaf;
+
+    public TopBean(@Autowired MiddleBean middle, @Autowired LeafBean leaf) {
+        this.middle = middle;
+        this.leaf = leaf;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.scan.protocycle;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+import org.example.annotation.Scope;
+
+@Component
+@Scope(Scope.PROTOTYPE)
+public class FirstBridgeBean {
+
+    public FirstBridgeBean(@Autowired FirstEagerBean first) {
+    }
+}
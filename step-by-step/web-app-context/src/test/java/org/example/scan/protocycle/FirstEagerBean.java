@@ -0,0 +1,14 @@
+package org.example.scan.protocycle;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+/**
+ * 经由prototype的SecondBridgeBean依赖SecondEagerBean，SecondEagerBean又经由FirstBridgeBean依赖自己
+ */
+@Component
+public class FirstEagerBean {
+
+    public FirstEagerBean(@Autowired SlowBean slow, @Autowired SecondBridgeBean bridge) {
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.scan.protocycle;
+
+import org.example.annotation.Autowired;
+import org.example.annotation.Component;
+
+@Component
+public class SecondEagerBean {
+
+    public SecondEagerBean(@Autowired SlowBean slow, @Autowired FirstBridgeBean bridge) {
+    }
+}
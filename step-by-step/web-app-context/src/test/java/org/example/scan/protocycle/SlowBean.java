@@ -0,0 +1,16 @@
+package org.example.scan.protocycle;
+
+import org.example.annotation.Component;
+import org.example.annotation.Scope;
+
+/**
+ * 创建较慢的prototype，使并行创建时两个单例都已持有自己的锁后才去获取对方
+ */
+@Component
+@Scope(Scope.PROTOTYPE)
+public class SlowBean {
+
+    public SlowBean() throws InterruptedException {
+        Thread.sleep(200);
+    }
+}
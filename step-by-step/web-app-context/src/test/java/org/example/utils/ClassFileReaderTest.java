@@ -0,0 +1,78 @@
+package org.example.utils;
+
+import org.example.annotation.Component;
+import org.example.scan.classfile.ConstantsService;
+import org.example.scan.classfile.Mutual;
+import org.example.scan.classfile.MutualOnly;
+import org.example.scan.classfile.PlainValue;
+import org.example.scan.classfile.Service;
+import org.example.scan.classfile.ServiceInterface;
+import org.example.scan.classfile.Stereotype;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.annotation.Documented;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassFileReaderTest {
+
+    private final ClassFileReader reader = new ClassFileReader(getClass().getClassLoader());
+
+    @Test
+    public void readWithLongAndDoubleConstants() throws IOException {
+        ClassFileReader.ClassMetadata metadata = ClassFileReader.read(readBytes(ConstantsService.class));
+        assertEquals(ConstantsService.class.getName(), metadata.className());
+        assertEquals(Object.class.getName(), metadata.superClassName());
+        assertIterableEquals(List.of(Service.class.getName()), metadata.annotations());
+        assertTrue(metadata.isClass());
+
+        metadata = ClassFileReader.read(readBytes(PlainValue.class));
+        assertEquals(PlainValue.class.getName(), metadata.className());
+        assertIterableEquals(List.of(Deprecated.class.getName()), metadata.annotations());
+    }
+
+    @Test
+    public void readFromBufferPosition() throws IOException {
+        byte[] bytes = readBytes(ConstantsService.class);
+        byte[] padded = new byte[bytes.length + 16];
+        System.arraycopy(bytes, 0, padded, 7, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(padded);
+        buffer.position(7);
+        ClassFileReader.ClassMetadata metadata = ClassFileReader.read(buffer.asReadOnlyBuffer());
+        assertEquals(ConstantsService.class.getName(), metadata.className());
+        // 不改变传入的buffer
+        assertEquals(7, buffer.position());
+
+        assertThrows(IllegalArgumentException.class, () -> ClassFileReader.read(Arrays.copyOf(bytes, bytes.length / 2)));
+        assertThrows(IllegalArgumentException.class, () -> ClassFileReader.read(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+    }
+
+    @Test
+    public void metaAnnotations() throws IOException {
+        assertTrue(this.reader.hasAnnotation(ClassFileReader.read(readBytes(ConstantsService.class)), Component.class.getName()));
+        assertTrue(this.reader.hasAnnotation(ClassFileReader.read(readBytes(MutualOnly.class)), Component.class.getName()));
+        assertFalse(this.reader.hasAnnotation(ClassFileReader.read(readBytes(PlainValue.class)), Component.class.getName()));
+
+        ClassFileReader.ClassMetadata iface = ClassFileReader.read(readBytes(ServiceInterface.class));
+        assertFalse(iface.isClass());
+        assertTrue(this.reader.hasAnnotation(iface, Component.class.getName()));
+        assertFalse(ClassFileReader.read(readBytes(Service.class)).isClass());
+
+        // 读取过的注解即扫描结果依赖的注解，java.lang.annotation中的注解不读取
+        assertTrue(this.reader.getReadAnnotations().containsAll(
+                List.of(Service.class.getName(), Stereotype.class.getName(), Mutual.class.getName())));
+        assertFalse(this.reader.getReadAnnotations().contains(Documented.class.getName()));
+    }
+
+    private static byte[] readBytes(Class<?> clazz) throws IOException {
+        try (InputStream input = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            assertNotNull(input);
+            return input.readAllBytes();
+        }
+    }
+}